@@ -0,0 +1,63 @@
+package ve.jj.requestbuilder.loadtest;
+
+import ve.jj.requestbuilder.LatencyDistribution;
+import ve.jj.requestbuilder.StubServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Servidor local contra el que corre la carga, según el transporte de la configuración.
+ */
+interface Backend extends Closeable {
+
+    /**
+     * Inicia el servidor que corresponde al transporte: {@link StubServer} para {@code DEFAULT}, {@link MockBackend}
+     * (HTTP/1.1 o h2c) para los de OkHttp.
+     *
+     * @param config Configuración de la corrida.
+     * @param body   Cuerpo de todas las respuestas.
+     * @return El servidor iniciado.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    static Backend start(LoadTestConfig config, byte[] body) throws IOException {
+        LatencyDistribution latency = LatencyDistribution.logNormal(config.getServerMedianMillis(), config.getServerSigma());
+        if (config.getTransport() != LoadTestConfig.Transport.DEFAULT)
+            return new MockBackend(config.getTransport() == LoadTestConfig.Transport.H2C, body, latency);
+        StubServer server = StubServer.start(0, config.getServerThreads(),
+                StubServer.fixed(200, "application/json", body), latency);
+        return new Backend() {
+            @Override
+            public int getPort() {
+                return server.getPort();
+            }
+
+            @Override
+            public int getConcurrent() {
+                return server.getConcurrent();
+            }
+
+            @Override
+            public long getConnections() {
+                return -1;
+            }
+
+            @Override
+            public void close() {
+                server.close();
+            }
+        };
+    }
+
+    int getPort();
+
+    /**
+     * @return Solicitudes en curso.
+     */
+    int getConcurrent();
+
+    /**
+     * @return Conexiones aceptadas desde el inicio, o -1 si el servidor no las cuenta.
+     */
+    long getConnections();
+}
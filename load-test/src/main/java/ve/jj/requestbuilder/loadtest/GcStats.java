@@ -0,0 +1,75 @@
+package ve.jj.requestbuilder.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Foto de las estadísticas de recolección de basura y asignación de memoria de la JVM. La diferencia entre dos fotos da
+ * lo ocurrido durante la corrida.
+ */
+public class GcStats {
+    //    ********* ATTRIBUTES
+
+    private final Map<String, long[]> collectors; // nombre -> {colecciones, milisegundos}
+    private final long allocatedBytes; // -1 si la JVM no lo soporta
+    private final long heapUsedBytes;
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * @return Foto del estado actual.
+     */
+    public static GcStats snapshot() {
+        Map<String, long[]> collectors = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+            collectors.put(gc.getName(), new long[]{gc.getCollectionCount(), gc.getCollectionTime()});
+        return new GcStats(collectors, allocatedBytes(), ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+    }
+
+    /**
+     * Suma de lo asignado por los hilos vivos. Es aproximado: no incluye hilos que ya terminaron.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean))
+            return -1;
+        com.sun.management.ThreadMXBean sun = (com.sun.management.ThreadMXBean) threads;
+        if (!sun.isThreadAllocatedMemorySupported() || !sun.isThreadAllocatedMemoryEnabled())
+            return -1;
+        long total = 0;
+        for (long allocated : sun.getThreadAllocatedBytes(threads.getAllThreadIds()))
+            if (allocated > 0)
+                total += allocated;
+        return total;
+    }
+
+//    ************************* CONSTRUCTORS
+
+    private GcStats(Map<String, long[]> collectors, long allocatedBytes, long heapUsedBytes) {
+        this.collectors = collectors;
+        this.allocatedBytes = allocatedBytes;
+        this.heapUsedBytes = heapUsedBytes;
+    }
+
+//    ***************** REPORT
+
+    /**
+     * @param before Foto al inicio de la medición.
+     * @return Diferencia entre esta foto y la anterior, en texto.
+     */
+    public String since(GcStats before) {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, long[]> collector : collectors.entrySet()) {
+            long[] start = before.collectors.getOrDefault(collector.getKey(), new long[2]);
+            text.append(String.format("  %-24s %8d colecciones %10d ms%n", collector.getKey(),
+                    collector.getValue()[0] - start[0], collector.getValue()[1] - start[1]));
+        }
+        if (allocatedBytes >= 0 && before.allocatedBytes >= 0)
+            text.append(String.format("  asignado (aprox.)        %10.1f MB%n", (allocatedBytes - before.allocatedBytes) / 1048576.0));
+        text.append(String.format("  heap usado al final      %10.1f MB%n", heapUsedBytes / 1048576.0));
+        return text.toString();
+    }
+}
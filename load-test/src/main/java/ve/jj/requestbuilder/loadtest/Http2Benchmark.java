@@ -0,0 +1,30 @@
+package ve.jj.requestbuilder.loadtest;
+
+/**
+ * Escenario que compara HTTP/1.1 y HTTP/2: corre el {@link LoadTest} con la misma configuración para cada
+ * {@link LoadTestConfig.Transport} y muestra una tabla con rendimiento, latencias y conexiones abiertas. Con HTTP/1.1
+ * cada solicitud en curso ocupa una conexión, con h2c todas se multiplexan en una.
+ * <p>
+ * Acepta los mismos argumentos que {@link LoadTest}, salvo {@code -transport}. Los reportes de cada corrida se
+ * escriben como {@code <nombre>-<transporte>}. Uso: {@code Http2Benchmark -mode=closed -concurrency=64 -duration=30}
+ */
+public class Http2Benchmark {
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        StringBuilder table = new StringBuilder(String.format("%-8s %12s %10s %10s %10s %12s %8s%n",
+                "transp.", "solicit./s", "p50 ms", "p99 ms", "p99.9 ms", "conexiones", "errores"));
+        for (LoadTestConfig.Transport transport : LoadTestConfig.Transport.values()) {
+            LoadTestConfig config = LoadTestConfig.fromArgs(args).withTransport(transport);
+            config.withName(config.getName() + "-" + transport.name().toLowerCase());
+            LatencyReport report = new LoadTest(config).run();
+            report.write(config.getOutputDirectory());
+            System.out.println(report.summary());
+            table.append(String.format("%-8s %12.1f %10.3f %10.3f %10.3f %12s %8d%n", transport, report.getThroughput(),
+                    report.getPercentileMillis(50), report.getPercentileMillis(99), report.getPercentileMillis(99.9),
+                    report.getConnections() >= 0 ? String.valueOf(report.getConnections()) : "-", report.getErrors()));
+        }
+        System.out.print(table);
+    }
+}
@@ -0,0 +1,102 @@
+package ve.jj.requestbuilder.loadtest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import ve.jj.requestbuilder.RecordedResponse;
+import ve.jj.requestbuilder.RequestBuilder;
+import ve.jj.requestbuilder.RequestInterceptor;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Micro-benchmark del costo por llamado de la cadena de interceptores: realiza {@code get().perform()} contra un
+ * transporte en memoria, sin red, con 0, 1 y 3 interceptores que sólo continúan la cadena, y reporta tiempo y bytes
+ * asignados por llamado. La diferencia entre los casos es el costo de la cadena.
+ * <p>
+ * Uso: {@code InterceptorBenchmark -calls=1000000 -rounds=3}
+ */
+public class InterceptorBenchmark {
+    //    ********* ATTRIBUTES
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+//    ********************* STATIC UTILITIES
+
+    public static void main(String[] args) {
+        int calls = 1_000_000;
+        int rounds = 3;
+        for (String arg : args) {
+            if (arg.startsWith("-calls="))
+                calls = Integer.parseInt(arg.substring(7));
+            else if (arg.startsWith("-rounds="))
+                rounds = Integer.parseInt(arg.substring(8));
+            else
+                throw new IllegalArgumentException("Argumento desconocido: " + arg);
+        }
+        RequestBuilder client = inMemoryClient();
+        RequestInterceptor noop = (request, chain) -> chain.proceed(request);
+        // la primera ronda es calentamiento, el JIT compila distinto según el orden
+        for (int round = 0; round <= rounds; round++) {
+            boolean report = round > 0;
+            client.setInterceptors();
+            measure("sin interceptores", client, calls, report);
+            client.setInterceptors(noop);
+            measure("1 interceptor", client, calls, report);
+            client.setInterceptors(noop, noop, noop);
+            measure("3 interceptores", client, calls, report);
+        }
+    }
+
+    /**
+     * Cliente cuyo transporte responde siempre un JSON pequeño sin abrir conexiones.
+     */
+    private static RequestBuilder inMemoryClient() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ByteBuffer body = ByteBuffer.wrap("{\"id\":1}".getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        RequestBuilder client = new RequestBuilder("localhost", "/items", 80, null, null);
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) {
+                return new RecordedResponse(200, headers, body.duplicate());
+            }
+        });
+        return client;
+    }
+
+    private static void measure(String name, RequestBuilder client, int calls, boolean report) {
+        long thread = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++)
+            client.get().perform();
+        long nanos = System.nanoTime() - start;
+        bytes = THREADS.getThreadAllocatedBytes(thread) - bytes;
+        if (report)
+            System.out.printf("%-18s %10.1f ns/llamado %10.1f B/llamado%n", name, nanos / (double) calls, bytes / (double) calls);
+    }
+}
@@ -0,0 +1,123 @@
+package ve.jj.requestbuilder.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resultado de una corrida: histograma de latencias (en nanosegundos), errores, uso del pool y recolección de basura.
+ * Se escribe como {@code <nombre>.hgrm} (distribución de percentiles en milisegundos, graficable con el HdrHistogram
+ * plotter) y {@code <nombre>-summary.txt}.
+ */
+public class LatencyReport {
+    //    ********* ATTRIBUTES
+
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final LoadTestConfig config;
+    private final Histogram histogram;
+    private final long errors;
+    private final int maxQueued;
+    private final int maxServerConcurrent;
+    private final long connections;
+    private final String gc;
+
+//    ************************* CONSTRUCTORS
+
+    /**
+     * @param config              Configuración de la corrida.
+     * @param histogram           Latencias medidas, sin el calentamiento.
+     * @param errors              Solicitudes fallidas o con error, incluidas en el histograma.
+     * @param maxQueued           Máximo de solicitudes esperando un hilo libre (sólo carga abierta).
+     * @param maxServerConcurrent Máximo de solicitudes en curso observado en el servidor.
+     * @param connections         Conexiones aceptadas por el servidor en toda la corrida, o -1 si no se cuentan.
+     * @param gc                  Estadísticas de recolección de la medición.
+     */
+    public LatencyReport(LoadTestConfig config, Histogram histogram, long errors, int maxQueued, int maxServerConcurrent,
+                         long connections, String gc) {
+        this.config = config;
+        this.histogram = histogram;
+        this.errors = errors;
+        this.maxQueued = maxQueued;
+        this.maxServerConcurrent = maxServerConcurrent;
+        this.connections = connections;
+        this.gc = gc;
+    }
+
+//    ***************** REPORT
+
+    /**
+     * @return Resumen en texto.
+     */
+    public String summary() {
+        double seconds = config.getDurationNanos() / 1e9;
+        StringBuilder text = new StringBuilder();
+        text.append(config).append(System.lineSeparator());
+        text.append(String.format("solicitudes %d, errores %d, rendimiento %.1f/s%n", histogram.getTotalCount(), errors,
+                histogram.getTotalCount() / seconds));
+        if (config.getMode() == LoadTestConfig.Mode.OPEN)
+            text.append(String.format("tasa objetivo %d/s, máximo en cola por hilos %d%n", config.getRate(), maxQueued));
+        text.append(String.format("máximo en curso en el servidor %d%n", maxServerConcurrent));
+        if (connections >= 0)
+            text.append(String.format("conexiones aceptadas por el servidor %d%n", connections));
+        text.append("latencia (ms):").append(System.lineSeparator());
+        text.append(String.format("  %-8s %10.3f%n", "min", histogram.getMinValue() / NANOS_PER_MILLI));
+        text.append(String.format("  %-8s %10.3f%n", "media", histogram.getMean() / NANOS_PER_MILLI));
+        for (double percentile : PERCENTILES)
+            text.append(String.format("  p%-7s %10.3f%n", format(percentile), histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI));
+        text.append(String.format("  %-8s %10.3f%n", "max", histogram.getMaxValue() / NANOS_PER_MILLI));
+        text.append("gc:").append(System.lineSeparator()).append(gc);
+        return text.toString();
+    }
+
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Escribe el histograma y el resumen en el directorio indicado.
+     *
+     * @param directory Directorio de salida, se crea si no existe.
+     * @throws IOException Si no se puede escribir.
+     */
+    public void write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(config.getName() + ".hgrm")), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+        Files.write(directory.resolve(config.getName() + "-summary.txt"), summary().getBytes("UTF-8"));
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return Conexiones aceptadas por el servidor, incluido el calentamiento, o -1 si no se cuentan.
+     */
+    public long getConnections() {
+        return connections;
+    }
+
+    /**
+     * @return Latencia del percentil en milisegundos.
+     */
+    public double getPercentileMillis(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+
+    public double getThroughput() {
+        return histogram.getTotalCount() / (config.getDurationNanos() / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+}
@@ -0,0 +1,215 @@
+package ve.jj.requestbuilder.loadtest;
+
+import okhttp3.OkHttpClient;
+import org.HdrHistogram.Recorder;
+import ve.jj.requestbuilder.Http2Transport;
+import ve.jj.requestbuilder.RequestBuilder;
+import ve.jj.requestbuilder.RequestBuilderException;
+import ve.jj.requestbuilder.ResponseWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Harness de carga del {@link RequestBuilder}: levanta un servidor local con latencia log-normal (ver
+ * {@link LoadTestConfig.Transport}), lo somete a carga abierta o cerrada con {@code get()}/{@code post()} y reporta
+ * latencias con HdrHistogram y estadísticas de GC.
+ * <p>
+ * Todos los hilos de carga comparten un mismo cliente. Con el transporte por defecto la JVM mantiene sólo {@code http.maxConnections} (5) conexiones ociosas por destino, con más
+ * concurrencia se abren y cierran conexiones constantemente; se puede subir con {@code -Dhttp.maxConnections=N} para
+ * comparar. Con los transportes de OkHttp el cliente usa un {@link OkHttpClient} cuyo pool mantiene tantas conexiones
+ * ociosas como la concurrencia.
+ * <p>
+ * Uso: {@code LoadTest -mode=open|closed -method=GET|POST -transport=default|http1|h2c -rate=1000 -concurrency=64 -duration=30 -warmup=5
+ * -bodySize=512 -serverMedian=5 -serverSigma=0.5 -serverThreads=8 -name=run -out=target/load-test}
+ */
+public class LoadTest {
+    //    ********* ATTRIBUTES
+
+    private static final long HIGHEST_TRACKABLE = TimeUnit.MINUTES.toNanos(1);
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(50); // espera activa final del generador
+
+    private final LoadTestConfig config;
+    private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE, 3);
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicInteger maxServerConcurrent = new AtomicInteger();
+    private int maxQueued;
+    private GcStats gcBefore;
+
+    private Map<String, String> requestBody;
+    private Backend server;
+    private RequestBuilder client;
+
+//    ********************* STATIC UTILITIES
+
+    public static void main(String[] args) throws Exception {
+        // antes de crear el servidor: sin TCP_NODELAY cada respuesta espera el ACK retardado del cliente (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        LoadTestConfig config = LoadTestConfig.fromArgs(args);
+        LatencyReport report = new LoadTest(config).run();
+        report.write(config.getOutputDirectory());
+        System.out.println(report.summary());
+        System.out.println("Reporte en " + config.getOutputDirectory().toAbsolutePath());
+    }
+
+    /**
+     * Cuerpo JSON de aproximadamente {@code size} bytes.
+     */
+    private static String payload(int size) {
+        char[] data = new char[Math.max(0, size - 11)];
+        Arrays.fill(data, 'x');
+        return new String(data);
+    }
+
+//    ************************* CONSTRUCTORS
+
+    public LoadTest(LoadTestConfig config) {
+        this.config = config;
+    }
+
+//    ***************** RUN
+
+    /**
+     * Ejecuta el calentamiento y la medición.
+     *
+     * @return El reporte de la medición.
+     * @throws Exception Si no se puede levantar el servidor o la corrida es interrumpida.
+     */
+    public LatencyReport run() throws Exception {
+        String data = payload(config.getBodySize());
+        byte[] responseBody = ("{\"data\":\"" + data + "\"}").getBytes(StandardCharsets.UTF_8);
+        requestBody = Collections.singletonMap("data", data);
+        server = Backend.start(config, responseBody);
+        client = client();
+        try {
+            long start = System.nanoTime();
+            long measureStart = start + config.getWarmUpNanos();
+            long end = measureStart + config.getDurationNanos();
+            if (config.getMode() == LoadTestConfig.Mode.OPEN)
+                runOpen(start, measureStart, end);
+            else
+                runClosed(measureStart, end);
+            String gc = GcStats.snapshot().since(gcBefore);
+            return new LatencyReport(config, recorder.getIntervalHistogram(), errors.get(), maxQueued,
+                    maxServerConcurrent.get(), server.getConnections(), gc);
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * Un único cliente compartido por todos los hilos de carga, como se usa en producción. Con OkHttp el pool y la
+     * multiplexación HTTP/2 abarcan todos los hilos.
+     */
+    private RequestBuilder client() {
+        RequestBuilder client = new RequestBuilder("localhost", "/load", server.getPort(), null, null);
+        if (config.getTransport() == LoadTestConfig.Transport.DEFAULT)
+            return client;
+        Http2Transport transport = (config.getTransport() == LoadTestConfig.Transport.H2C
+                ? Http2Transport.cleartext()
+                : Http2Transport.tls()) // sin TLS no hay ALPN, OkHttp usa HTTP/1.1
+                .withMaxIdleConnections(config.getConcurrency());
+        transport.install(client, transport.buildClient());
+        return client;
+    }
+
+    /**
+     * Carga abierta: la solicitud {@code i} se planifica para {@code start + i * intervalo} y su latencia se mide desde
+     * esa hora, aunque el generador o el pool de hilos se hayan atrasado.
+     */
+    private void runOpen(long start, long measureStart, long end) throws InterruptedException {
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(config.getConcurrency(), config.getConcurrency(),
+                0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "load-test-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        double interval = TimeUnit.SECONDS.toNanos(1) / (double) config.getRate();
+        for (long i = 0; ; i++) {
+            long intended = start + (long) (i * interval);
+            if (intended - end >= 0)
+                break;
+            waitUntil(intended);
+            if (gcBefore == null && intended - measureStart >= 0)
+                gcBefore = GcStats.snapshot();
+            boolean measured = intended - measureStart >= 0;
+            workers.execute(() -> call(intended, measured));
+            if ((i & 127) == 0) {
+                maxQueued = Math.max(maxQueued, workers.getQueue().size());
+                sampleServer();
+            }
+        }
+        if (gcBefore == null)
+            gcBefore = GcStats.snapshot();
+        workers.shutdown();
+        workers.awaitTermination(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Carga cerrada: cada usuario envía su siguiente solicitud al recibir la respuesta anterior.
+     */
+    private void runClosed(long measureStart, long end) throws InterruptedException {
+        Thread[] users = new Thread[config.getConcurrency()];
+        for (int i = 0; i < users.length; i++) {
+            users[i] = new Thread(() -> {
+                for (long now = System.nanoTime(); now - end < 0; now = System.nanoTime())
+                    call(now, now - measureStart >= 0);
+            }, "load-test-user-" + i);
+            users[i].setDaemon(true);
+            users[i].start();
+        }
+        waitUntil(measureStart);
+        gcBefore = GcStats.snapshot();
+        while (System.nanoTime() - end < 0) {
+            sampleServer();
+            Thread.sleep(10);
+        }
+        for (Thread user : users)
+            user.join();
+    }
+
+    /**
+     * Realiza una solicitud y registra su latencia desde {@code start}.
+     */
+    private void call(long start, boolean measured) {
+        boolean failed;
+        try {
+            ResponseWrapper response = config.getMethod().equals("POST")
+                    ? client.post().withBody(requestBody).perform()
+                    : client.get().perform();
+            failed = response.hasError();
+            if (!failed)
+                response.getBody(Map.class);
+        } catch (RequestBuilderException e) {
+            failed = true;
+        }
+        if (!measured)
+            return;
+        recorder.recordValue(Math.min(System.nanoTime() - start, HIGHEST_TRACKABLE));
+        if (failed)
+            errors.incrementAndGet();
+    }
+
+    private void sampleServer() {
+        int concurrent = server.getConcurrent();
+        maxServerConcurrent.accumulateAndGet(concurrent, Math::max);
+    }
+
+    private static void waitUntil(long deadline) {
+        for (long remaining = deadline - System.nanoTime(); remaining > 0; remaining = deadline - System.nanoTime()) {
+            if (remaining > SPIN_NANOS)
+                LockSupport.parkNanos(remaining - SPIN_NANOS);
+            else
+                Thread.yield();
+        }
+    }
+}
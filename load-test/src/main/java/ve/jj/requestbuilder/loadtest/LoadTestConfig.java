@@ -0,0 +1,232 @@
+package ve.jj.requestbuilder.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuración de una corrida de carga. Se construye con los métodos {@code withX} o desde los argumentos de línea de
+ * comandos con {@code fromArgs}, en la forma {@code -nombre=valor}.
+ */
+public class LoadTestConfig {
+    //    ********* ATTRIBUTES
+
+    /**
+     * Tipo de carga.
+     * <ul>
+     * <li>OPEN: llegadas a tasa fija. Cada solicitud tiene una hora de inicio planificada y la latencia se mide desde
+     * ella, así un servidor lento no frena la generación de carga ni oculta la espera (omisión coordinada).</li>
+     * <li>CLOSED: un número fijo de usuarios, cada uno envía la siguiente solicitud al recibir la respuesta anterior.
+     * Mide el techo de rendimiento para esa concurrencia.</li>
+     * </ul>
+     */
+    public enum Mode {
+        OPEN, CLOSED
+    }
+
+    /**
+     * Transporte del cliente y servidor local contra el que se corre.
+     * <ul>
+     * <li>DEFAULT: transporte por defecto del RestTemplate (HttpURLConnection) contra el {@code StubServer}.</li>
+     * <li>HTTP1: OkHttp con HTTP/1.1 contra MockWebServer, una conexión por solicitud en curso.</li>
+     * <li>H2C: OkHttp con HTTP/2 sin TLS ({@code Http2Transport.cleartext()}) contra MockWebServer, las solicitudes
+     * concurrentes se multiplexan en una conexión.</li>
+     * </ul>
+     * HTTP1 y H2C usan el mismo cliente y servidor y sólo cambia el protocolo, son los que se deben comparar. El servidor
+     * del JDK no soporta HTTP/2, por eso no se usa el {@code StubServer} para ellos.
+     */
+    public enum Transport {
+        DEFAULT, HTTP1, H2C
+    }
+
+    private String name = "run";
+    private Mode mode = Mode.OPEN;
+    private String method = "GET";
+    private Transport transport = Transport.DEFAULT;
+    private int rate = 1000; // solicitudes por segundo en OPEN
+    private int concurrency = 64; // usuarios en CLOSED, máximo de solicitudes en vuelo en OPEN
+    private long durationNanos = TimeUnit.SECONDS.toNanos(30);
+    private long warmUpNanos = TimeUnit.SECONDS.toNanos(5);
+    private int bodySize = 512; // bytes del cuerpo de respuesta, y de solicitud en POST
+    private double serverMedianMillis = 5; // latencia simulada del servidor, log-normal
+    private double serverSigma = 0.5;
+    private int serverThreads = 8;
+    private Path outputDirectory = Paths.get("target", "load-test");
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * @param args Argumentos como {@code -mode=closed -concurrency=128 -duration=60}. Duraciones en segundos.
+     * @return La configuración, con valores por defecto para lo no indicado.
+     */
+    public static LoadTestConfig fromArgs(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (!arg.startsWith("-") || split < 0)
+                throw new IllegalArgumentException("Argumento inválido, se espera -nombre=valor: " + arg);
+            values.put(arg.substring(1, split), arg.substring(split + 1));
+        }
+        LoadTestConfig config = new LoadTestConfig();
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            String v = value.getValue();
+            switch (value.getKey()) {
+                case "name": config.withName(v); break;
+                case "mode": config.withMode(Mode.valueOf(v.toUpperCase())); break;
+                case "method": config.withMethod(v.toUpperCase()); break;
+                case "transport": config.withTransport(Transport.valueOf(v.toUpperCase())); break;
+                case "rate": config.withRate(Integer.parseInt(v)); break;
+                case "concurrency": config.withConcurrency(Integer.parseInt(v)); break;
+                case "duration": config.withDuration(Long.parseLong(v), TimeUnit.SECONDS); break;
+                case "warmup": config.withWarmUp(Long.parseLong(v), TimeUnit.SECONDS); break;
+                case "bodySize": config.withBodySize(Integer.parseInt(v)); break;
+                case "serverMedian": config.withServerLatency(Double.parseDouble(v), config.serverSigma); break;
+                case "serverSigma": config.withServerLatency(config.serverMedianMillis, Double.parseDouble(v)); break;
+                case "serverThreads": config.withServerThreads(Integer.parseInt(v)); break;
+                case "out": config.withOutputDirectory(Paths.get(v)); break;
+                default: throw new IllegalArgumentException("Argumento desconocido: " + value.getKey());
+            }
+        }
+        if (!config.method.equals("GET") && !config.method.equals("POST"))
+            throw new IllegalArgumentException("Método no soportado: " + config.method);
+        return config;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    public LoadTestConfig withName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public LoadTestConfig withMode(Mode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * @param method {@code GET} o {@code POST}.
+     * @return La propia instancia.
+     */
+    public LoadTestConfig withMethod(String method) {
+        this.method = method;
+        return this;
+    }
+
+    public LoadTestConfig withTransport(Transport transport) {
+        this.transport = transport;
+        return this;
+    }
+
+    public LoadTestConfig withRate(int rate) {
+        this.rate = rate;
+        return this;
+    }
+
+    public LoadTestConfig withConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public LoadTestConfig withDuration(long duration, TimeUnit unit) {
+        this.durationNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * @param warmUp Tiempo de carga inicial que no se incluye en el reporte.
+     * @param unit   Unidad del tiempo.
+     * @return La propia instancia.
+     */
+    public LoadTestConfig withWarmUp(long warmUp, TimeUnit unit) {
+        this.warmUpNanos = unit.toNanos(warmUp);
+        return this;
+    }
+
+    public LoadTestConfig withBodySize(int bodySize) {
+        this.bodySize = bodySize;
+        return this;
+    }
+
+    public LoadTestConfig withServerLatency(double medianMillis, double sigma) {
+        this.serverMedianMillis = medianMillis;
+        this.serverSigma = sigma;
+        return this;
+    }
+
+    public LoadTestConfig withServerThreads(int serverThreads) {
+        this.serverThreads = serverThreads;
+        return this;
+    }
+
+    public LoadTestConfig withOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+        return this;
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    public String getName() {
+        return name;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
+    public int getRate() {
+        return rate;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getWarmUpNanos() {
+        return warmUpNanos;
+    }
+
+    public int getBodySize() {
+        return bodySize;
+    }
+
+    public double getServerMedianMillis() {
+        return serverMedianMillis;
+    }
+
+    public double getServerSigma() {
+        return serverSigma;
+    }
+
+    public int getServerThreads() {
+        return serverThreads;
+    }
+
+    public Path getOutputDirectory() {
+        return outputDirectory;
+    }
+
+    @Override
+    public String toString() {
+        return "name=" + name + " mode=" + mode + " method=" + method + " transport=" + transport
+                + (mode == Mode.OPEN ? " rate=" + rate + "/s maxInFlight=" : " users=") + concurrency
+                + " duration=" + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s"
+                + " warmup=" + TimeUnit.NANOSECONDS.toSeconds(warmUpNanos) + "s"
+                + " bodySize=" + bodySize + "B server=logNormal(" + serverMedianMillis + "ms, " + serverSigma + ")"
+                + " serverThreads=" + serverThreads;
+    }
+}
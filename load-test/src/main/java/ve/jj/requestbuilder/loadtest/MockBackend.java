@@ -0,0 +1,87 @@
+package ve.jj.requestbuilder.loadtest;
+
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import ve.jj.requestbuilder.LatencyDistribution;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Servidor local sobre MockWebServer de OkHttp, que además de HTTP/1.1 soporta h2c con conocimiento previo. Atiende
+ * cada conexión HTTP/1.1 y cada stream HTTP/2 en su propio hilo, así que la latencia simulada se espera con un
+ * {@code sleep} sin limitar la concurrencia.
+ */
+final class MockBackend implements Backend {
+    //    ********* ATTRIBUTES
+
+    // MockWebServer registra cada solicitud en INFO, se guarda la referencia para que no se pierda el nivel
+    private static final Logger LOGGER = Logger.getLogger(MockWebServer.class.getName());
+
+    private final MockWebServer server = new MockWebServer();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final LongAdder connections = new LongAdder();
+
+//    ************************* CONSTRUCTORS
+
+    /**
+     * @param h2c     HTTP/2 sin TLS en lugar de HTTP/1.1.
+     * @param body    Cuerpo de todas las respuestas.
+     * @param latency Latencia simulada.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    MockBackend(boolean h2c, byte[] body, LatencyDistribution latency) throws IOException {
+        LOGGER.setLevel(Level.WARNING);
+        server.setProtocols(Collections.singletonList(h2c ? Protocol.H2_PRIOR_KNOWLEDGE : Protocol.HTTP_1_1));
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                // el número de secuencia es por conexión, 0 es la primera solicitud de una conexión nueva
+                if (request.getSequenceNumber() == 0)
+                    connections.increment();
+                int current = concurrent.incrementAndGet();
+                try {
+                    TimeUnit.NANOSECONDS.sleep(latency.sampleNanos(current));
+                } finally {
+                    concurrent.decrementAndGet();
+                }
+                return new MockResponse()
+                        .setHeader("Content-Type", "application/json")
+                        .setBody(new Buffer().write(body));
+            }
+        });
+        server.start(InetAddress.getByName("127.0.0.1"), 0);
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    @Override
+    public int getPort() {
+        return server.getPort();
+    }
+
+    @Override
+    public int getConcurrent() {
+        return concurrent.get();
+    }
+
+    @Override
+    public long getConnections() {
+        return connections.sum();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+}
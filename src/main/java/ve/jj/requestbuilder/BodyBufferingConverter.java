@@ -0,0 +1,226 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Lector de cuerpos de respuesta como {@link ResponseBody}, registrado en el {@link org.springframework.web.client.RestTemplate}
+ * de cada {@link RequestBuilder}. Pedir {@link Discarded} descarta el cuerpo sin guardarlo.
+ * <ul>
+ * <li>Hasta {@code spillThreshold} bytes el cuerpo se lee en memoria.</li>
+ * <li>Por encima se vuelca a un archivo temporal en {@code spillDirectory} y se expone mapeado en memoria. Si el
+ * {@code Content-Length} ya supera el umbral se escribe directo al archivo.</li>
+ * <li>Si el cuerpo supera {@code maxBodySize} (por {@code Content-Length} o al leerlo) se cierra el flujo para abortar
+ * la transferencia y se lanza {@link TooLargeException}. Un cuerpo volcado no puede superar los 2 GB.</li>
+ * </ul>
+ */
+class BodyBufferingConverter implements HttpMessageConverter<Object> {
+    //    ********* ATTRIBUTES
+
+    private static final int INITIAL = 4 * 1024; // buffer inicial sin Content-Length, crece al doble
+    private static final int CHUNK = 64 * 1024; // bloque de copia al archivo
+    private static final long DRAIN_LIMIT = 256 * 1024; // restante que se consume al descartar para reutilizar la conexión
+    private static final long MAX_MAPPED = Integer.MAX_VALUE;
+    private static final long MAX_ARRAY = Integer.MAX_VALUE - 8; // algunas JVM reservan palabras de cabecera
+    // los mismos tipos de StringHttpMessageConverter, para no cambiar el header Accept respecto a leer como String
+    private static final List<MediaType> MEDIA_TYPES = Collections.unmodifiableList(Arrays.asList(
+            MediaType.TEXT_PLAIN, MediaType.ALL));
+
+    private volatile long spillThreshold = 16L * 1024 * 1024;
+    private volatile long maxBodySize = Long.MAX_VALUE;
+    private volatile Path spillDirectory; // null para el directorio temporal del sistema
+
+//    ***************** CONVERTER
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return ResponseBody.class == clazz || Discarded.class == clazz;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public List<MediaType> getSupportedMediaTypes() {
+        return MEDIA_TYPES;
+    }
+
+    @Override
+    public Object read(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        if (clazz == Discarded.class) {
+            discard(inputMessage);
+            return null;
+        }
+        return readBody(inputMessage);
+    }
+
+    private ResponseBody readBody(HttpInputMessage inputMessage) throws IOException {
+        InputStream in = inputMessage.getBody();
+        long max = Math.min(maxBodySize, MAX_MAPPED);
+        long threshold = Math.min(spillThreshold, MAX_ARRAY); // lo que quede en el heap debe caber en un arreglo
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        if (contentLength > max)
+            throw tooLarge(in, contentLength);
+        if (contentLength > threshold)
+            return spill(in, new byte[0], 0, -1, max);
+
+        byte[] bytes = new byte[contentLength >= 0 ? (int) contentLength : (int) Math.min(INITIAL, threshold)];
+        int count = 0;
+        while (true) {
+            if (count == bytes.length) {
+                // con el arreglo lleno (siempre al final de un cuerpo con Content-Length) un byte más distingue el fin
+                // del cuerpo de tener que crecer, sin copiar el arreglo
+                int next = in.read();
+                if (next < 0)
+                    break;
+                if (count + 1L > max)
+                    throw tooLarge(in, count + 1L);
+                if (count + 1L > threshold)
+                    return spill(in, bytes, count, next, max);
+                bytes = Arrays.copyOf(bytes, (int) Math.min(Math.max(count * 2L, INITIAL), threshold));
+                bytes[count++] = (byte) next;
+                continue;
+            }
+            int n = in.read(bytes, count, bytes.length - count);
+            if (n < 0)
+                break;
+            count += n;
+            if (count > max)
+                throw tooLarge(in, count);
+        }
+        return new ResponseBody(ByteBuffer.wrap(bytes, 0, count).slice(), false);
+    }
+
+    /**
+     * Consume un resto pequeño del cuerpo para que la conexión vuelva al pool. Si es mayor a {@code DRAIN_LIMIT} cierra
+     * el flujo: perder la conexión es más barato que transferir el cuerpo completo.
+     */
+    private static void discard(HttpInputMessage inputMessage) throws IOException {
+        InputStream in = inputMessage.getBody();
+        long contentLength = inputMessage.getHeaders().getContentLength();
+        if (contentLength <= DRAIN_LIMIT) {
+            byte[] skip = new byte[4096];
+            long drained = 0;
+            for (int n = in.read(skip); n >= 0; n = in.read(skip)) {
+                drained += n;
+                if (drained > DRAIN_LIMIT)
+                    break;
+            }
+        }
+        in.close();
+    }
+
+    /**
+     * Escribe lo ya leído ({@code head} y el byte {@code pending}, si no es -1) y el resto del flujo en un archivo
+     * temporal, lo mapea y lo borra.
+     */
+    private ResponseBody spill(InputStream in, byte[] head, int headLength, int pending, long max) throws IOException {
+        Path file = spillDirectory != null
+                ? Files.createTempFile(spillDirectory, "request-builder-", ".body")
+                : Files.createTempFile("request-builder-", ".body");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(head, 0, headLength));
+            long total = headLength;
+            if (pending >= 0) {
+                channel.write(ByteBuffer.wrap(new byte[]{(byte) pending}));
+                total++;
+            }
+            byte[] chunk = new byte[CHUNK];
+            for (int n = in.read(chunk); n >= 0; n = in.read(chunk)) {
+                total += n;
+                if (total > max)
+                    throw tooLarge(in, total);
+                ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, n);
+                while (buffer.hasRemaining())
+                    channel.write(buffer);
+            }
+            return new ResponseBody(channel.map(FileChannel.MapMode.READ_ONLY, 0, total), true);
+        } finally {
+            try {
+                Files.delete(file);
+            } catch (IOException e) {
+                file.toFile().deleteOnExit(); // sistemas que no permiten borrar un archivo mapeado
+            }
+        }
+    }
+
+    /**
+     * Cierra el flujo antes de que el {@link org.springframework.http.client.ClientHttpResponse} intente consumir el
+     * resto del cuerpo para reutilizar la conexión.
+     */
+    private static TooLargeException tooLarge(InputStream in, long size) {
+        try {
+            in.close();
+        } catch (IOException ignored) {
+        }
+        return new TooLargeException(size);
+    }
+
+    @Override
+    public void write(Object body, MediaType contentType, HttpOutputMessage outputMessage) {
+        throw new HttpMessageNotWritableException("ResponseBody es sólo de lectura");
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    void setSpillThreshold(long spillThreshold) {
+        if (spillThreshold < 0)
+            throw new IllegalArgumentException("El umbral de volcado no puede ser negativo");
+        this.spillThreshold = spillThreshold;
+    }
+
+    long getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    void setMaxBodySize(long maxBodySize) {
+        this.maxBodySize = maxBodySize;
+    }
+
+    Path getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    void setSpillDirectory(Path spillDirectory) {
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Tipo de respuesta que indica descartar el cuerpo.
+     */
+    static final class Discarded {
+        private Discarded() {
+        }
+    }
+
+    /**
+     * El cuerpo supera el tamaño máximo configurado.
+     */
+    static final class TooLargeException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        TooLargeException(long size) {
+            super("El cuerpo de la respuesta supera el tamaño máximo, se leyeron al menos " + size + " bytes");
+        }
+    }
+}
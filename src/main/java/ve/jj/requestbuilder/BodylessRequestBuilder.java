@@ -3,11 +3,16 @@ package ve.jj.requestbuilder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.RequestEntity;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Clase para construir solicitudes sin cuerpo. Puede ser utilizada particularmente pero su finalidad es ser usada por
@@ -24,13 +29,20 @@ public class BodylessRequestBuilder {
     //    URI auxiliar variables
     private String[] pathVars;
     private String basePath;
+    private String pathTemplate; // ruta sin sustituir las variables
     private String scheme = "http";
     private boolean pathSet = false;
+    private boolean responseBodyDiscarded = false; // sólo interesan estado y headers de la respuesta
 
     private URI uri;
-    protected HttpHeaders headers;
+    protected HttpHeaders headers; // headers propios de esta solicitud
     protected HttpMethod method;
-    protected MultiValueMap<String, String> params;
+    protected MultiValueMap<String, String> params; // parámetros propios de esta solicitud
+
+    //    Valores por defecto del cliente, compartidos entre solicitudes y nunca modificados aquí. Se combinan con los
+    //    propios sólo al construir la solicitud.
+    private HttpHeaders defaultHeaders;
+    private MultiValueMap<String, String> defaultParams;
 
 //    ********************* STATIC UTILITIES
 
@@ -50,6 +62,56 @@ public class BodylessRequestBuilder {
         return builder.build().encode().toUri();
     }
 
+    /**
+     * Combina headers por defecto con los propios de una solicitud sin modificar ninguno de los dos. Si alguno es
+     * {@code null} o vacío se retorna el otro sin copiar.
+     *
+     * @param defaults Headers por defecto.
+     * @param own      Headers propios.
+     * @return Los headers combinados.
+     */
+    static HttpHeaders mergeHeaders(HttpHeaders defaults, HttpHeaders own) {
+        if (own == null || own.isEmpty())
+            return defaults;
+        if (defaults == null || defaults.isEmpty())
+            return own;
+        HttpHeaders merged = new HttpHeaders();
+        merged.putAll(defaults);
+        for (Map.Entry<String, List<String>> header : own.entrySet()) {
+            List<String> base = merged.get(header.getKey());
+            if (base == null) {
+                merged.put(header.getKey(), header.getValue());
+            } else {
+                List<String> values = new ArrayList<>(base.size() + header.getValue().size());
+                values.addAll(base);
+                values.addAll(header.getValue());
+                merged.put(header.getKey(), values);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Combina parámetros por defecto con los propios de una solicitud sin modificar ninguno de los dos.
+     *
+     * @param defaults Parámetros por defecto.
+     * @param own      Parámetros propios.
+     * @return Los parámetros combinados.
+     */
+    static MultiValueMap<String, String> mergeParams(MultiValueMap<String, String> defaults, MultiValueMap<String, String> own) {
+        if (own == null || own.isEmpty())
+            return defaults;
+        if (defaults == null || defaults.isEmpty())
+            return own;
+        MultiValueMap<String, String> merged = new LinkedMultiValueMap<>(defaults.size() + own.size());
+        for (Map.Entry<String, List<String>> param : defaults.entrySet())
+            merged.put(param.getKey(), new ArrayList<>(param.getValue()));
+        for (Map.Entry<String, List<String>> param : own.entrySet())
+            for (String value : param.getValue())
+                merged.add(param.getKey(), value);
+        return merged;
+    }
+
     /**
      *
      * @return Una instancia.
@@ -137,6 +199,8 @@ public class BodylessRequestBuilder {
         } else {
             uriBuilder.path(basePath + path);
         }
+        String added = (basePath == null ? path : basePath + path);
+        pathTemplate = (pathTemplate == null ? added : pathTemplate + added);
         pathSet = true;
         return this;
     }
@@ -186,13 +250,24 @@ public class BodylessRequestBuilder {
         return this;
     }
 
+    /**
+     * Indica que sólo interesan el estado y los headers de la respuesta: el cuerpo se descarta sin leerlo en memoria
+     * para que la conexión vuelva al pool. Las solicitudes {@code HEAD} lo hacen siempre.
+     *
+     * @return La propia instancia.
+     */
+    public BodylessRequestBuilder withoutResponseBody() {
+        this.responseBodyDiscarded = true;
+        return this;
+    }
+
     /**
      * Construye la solicitud.
      *
      * @return La solicitud construida.
      */
     public RequestEntity build() {
-        return new RequestEntity(headers, method, getUri());
+        return new RequestEntity(mergedHeaders(), method, getUri());
     }
 
     /**
@@ -203,7 +278,17 @@ public class BodylessRequestBuilder {
      * @throws RequestBuilderException Excepción proveniente del padre.
      */
     public ResponseWrapper perform() throws RequestBuilderException {
-        return container.perform();
+        return container.perform(this);
+    }
+
+    /**
+     * Le delega a su padre la ejecución asíncrona de la solicitud. La solicitud se construye en el hilo llamador.
+     *
+     * @return Futuro con la respuesta envuelta tal como proviene del padre.
+     * @throws RequestBuilderException Excepción proveniente del padre.
+     */
+    public CompletableFuture<ResponseWrapper> performAsync() throws RequestBuilderException {
+        return container.performAsync(this);
     }
 
 //   ************************** GETTERS AND SETTERS:
@@ -255,7 +340,23 @@ public class BodylessRequestBuilder {
         if (!pathSet && basePath != null) {
             uriBuilder.path(basePath);
         }
-        return buildAndEncode(uriBuilder, pathVars, params);
+        return buildAndEncode(uriBuilder, pathVars, mergeParams(defaultParams, params));
+    }
+
+    /**
+     * @return Si se pidió descartar el cuerpo de la respuesta con {@code withoutResponseBody()}.
+     */
+    public boolean isResponseBodyDiscarded() {
+        return responseBodyDiscarded;
+    }
+
+    /**
+     * Ruta tal como fue agregada, sin sustituir las variables (por ejemplo {@code /items/{id}}).
+     *
+     * @return La ruta plantilla, o la ruta base si no se agregó ninguna.
+     */
+    public String getPathTemplate() {
+        return pathTemplate != null ? pathTemplate : basePath;
     }
 
     public BodylessRequestBuilder setUri(URI uri) {
@@ -263,16 +364,44 @@ public class BodylessRequestBuilder {
         return this;
     }
 
+    /**
+     * @return Los headers por defecto combinados con los propios de la solicitud, de sólo lectura (nunca {@code null}).
+     * Se calculan en cada llamado; para modificarlos se usan {@code withHeader} o {@code setHeaders}.
+     */
     public HttpHeaders getHeaders() {
-        return headers;
+        HttpHeaders merged = mergedHeaders();
+        return HttpHeaders.readOnlyHttpHeaders(merged != null ? merged : new HttpHeaders());
+    }
+
+    /**
+     * Headers para construir la solicitud, sin la copia de sólo lectura de {@code getHeaders()}. Pueden ser los por
+     * defecto o los propios sin copiar, no se deben modificar.
+     */
+    HttpHeaders mergedHeaders() {
+        return mergeHeaders(defaultHeaders, headers);
+    }
+
+    /**
+     * Valores por defecto del cliente. No se modifican, los headers y parámetros agregados a la solicitud se guardan
+     * aparte y se combinan al construirla.
+     *
+     * @param defaultHeaders Headers por defecto.
+     * @param defaultParams  Parámetros por defecto.
+     * @return La propia instancia.
+     */
+    BodylessRequestBuilder withDefaults(HttpHeaders defaultHeaders, MultiValueMap<String, String> defaultParams) {
+        this.defaultHeaders = defaultHeaders;
+        this.defaultParams = defaultParams;
+        return this;
     }
 
     /**
-     * Sobreescribe los ya existentes.
+     * Sobreescribe los ya existentes, incluyendo los por defecto.
      * @param headers
      * @return
      */
     public BodylessRequestBuilder setHeaders(HttpHeaders headers) {
+        this.defaultHeaders = null;
         this.headers = headers;
         return this;
     }
@@ -286,16 +415,22 @@ public class BodylessRequestBuilder {
         return this;
     }
 
+    /**
+     * @return Los parámetros por defecto combinados con los propios de la solicitud, de sólo lectura (nunca
+     * {@code null}). Se calculan en cada llamado; para modificarlos se usan {@code withParam} o {@code setParams}.
+     */
     public MultiValueMap<String, String> getParams() {
-        return params;
+        MultiValueMap<String, String> merged = mergeParams(defaultParams, params);
+        return CollectionUtils.unmodifiableMultiValueMap(merged != null ? merged : new LinkedMultiValueMap<>());
     }
 
     /**
-     * Sobreescribe los ya existentes.
+     * Sobreescribe los ya existentes, incluyendo los por defecto.
      * @param params
      * @return
      */
     public BodylessRequestBuilder setParams(MultiValueMap<String, String> params) {
+        this.defaultParams = null;
         this.params = params;
         return this;
     }
@@ -0,0 +1,273 @@
+package ve.jj.requestbuilder;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limitador adaptativo de solicitudes concurrentes por host. El límite de solicitudes en vuelo se ajusta con cada
+ * respuesta según el tiempo de ida y vuelta (RTT) observado: se reduce cuando la latencia sube y crece cuando es
+ * saludable. Las solicitudes que exceden el límite se rechazan de inmediato con {@code CONCURRENCY_LIMITED}.
+ * <p>
+ * Se configura en el cliente con {@code RequestBuilder.setConcurrencyLimiter(...)}.
+ */
+public class ConcurrencyLimiter {
+    //    ********* ATTRIBUTES
+
+    private final Algorithm algorithm;
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+
+    //    AIMD
+    private double backoffRatio = 0.9;
+    private long latencyThresholdNanos = Long.MAX_VALUE;
+
+    //    Gradiente
+    private double smoothing = 0.2;
+    private double rttTolerance = 2.0; // cuánto puede crecer el RTT respecto al mínimo antes de reducir
+    private int minRttWindow = 1000; // muestras tras las cuales se vuelve a medir el RTT mínimo
+
+    private final ConcurrentHashMap<String, HostLimit> hosts = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * Incremento aditivo y decremento multiplicativo: crece en uno por cada ventana de respuestas mientras se use al
+     * menos la mitad del límite, y se multiplica por {@code backoffRatio} (a lo sumo una vez por RTT) cuando una
+     * respuesta supera el umbral de latencia o falla.
+     *
+     * @param initialLimit       Límite inicial por host.
+     * @param minLimit           Límite mínimo.
+     * @param maxLimit           Límite máximo.
+     * @param latencyThresholdMs Latencia a partir de la cual se considera que el host está saturado.
+     * @return El limitador.
+     */
+    public static ConcurrencyLimiter aimd(int initialLimit, int minLimit, int maxLimit, long latencyThresholdMs) {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(Algorithm.AIMD, initialLimit, minLimit, maxLimit);
+        limiter.latencyThresholdNanos = latencyThresholdMs * 1_000_000L;
+        return limiter;
+    }
+
+    /**
+     * Gradiente: compara el RTT promedio de cada ventana (tantas respuestas como el límite) con el RTT mínimo observado
+     * (sin carga). Si la ventana es más de {@code rttTolerance} veces más lenta el límite se reduce proporcionalmente,
+     * y siempre se deja un margen de {@code sqrt(límite)} para seguir explorando capacidad. El mínimo se vuelve a medir
+     * cada {@code minRttWindow} muestras (y al menos cada 20 ventanas) para seguir cambios de capacidad del host:
+     * durante la medición, unas dos ventanas, el límite se reduce a {@code límite / (2 * rttTolerance)} y al terminar
+     * se restaura el anterior.
+     *
+     * @param initialLimit Límite inicial por host.
+     * @param minLimit     Límite mínimo.
+     * @param maxLimit     Límite máximo.
+     * @return El limitador.
+     */
+    public static ConcurrencyLimiter gradient(int initialLimit, int minLimit, int maxLimit) {
+        return new ConcurrencyLimiter(Algorithm.GRADIENT, initialLimit, minLimit, maxLimit);
+    }
+
+//    ************************* CONSTRUCTORS
+
+    public ConcurrencyLimiter(Algorithm algorithm, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit)
+            throw new IllegalArgumentException("Se requiere 1 <= minLimit <= initialLimit <= maxLimit");
+        this.algorithm = algorithm;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    public ConcurrencyLimiter withBackoffRatio(double backoffRatio) {
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    public ConcurrencyLimiter withSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    public ConcurrencyLimiter withRttTolerance(double rttTolerance) {
+        this.rttTolerance = rttTolerance;
+        return this;
+    }
+
+    public ConcurrencyLimiter withMinRttWindow(int minRttWindow) {
+        this.minRttWindow = minRttWindow;
+        return this;
+    }
+
+//    ***************** LIMITER METHODS:
+
+    /**
+     * Intenta ocupar un lugar para el host.
+     *
+     * @param host Host de la solicitud.
+     * @return El estado del host, que se debe pasar a {@code release}, o {@code null} si se excede el límite.
+     */
+    HostLimit tryAcquire(String host) {
+        HostLimit limit = hosts.get(host);
+        if (limit == null)
+            limit = hosts.computeIfAbsent(host, h -> new HostLimit(initialLimit));
+        for (; ; ) {
+            int current = limit.inFlight.get();
+            if (current >= limit.limit) {
+                rejected.increment();
+                return null;
+            }
+            if (limit.inFlight.compareAndSet(current, current + 1))
+                return limit;
+        }
+    }
+
+    /**
+     * Libera el lugar ocupado y ajusta el límite con la muestra. Si otro hilo está ajustando el límite del mismo host
+     * la muestra se descarta en lugar de esperar.
+     *
+     * @param limit      Estado retornado por {@code tryAcquire}.
+     * @param startNanos Momento en que empezó la solicitud, según {@link System#nanoTime()}.
+     * @param dropped    Si la solicitud falló por tiempo de espera o conexión.
+     */
+    void release(HostLimit limit, long startNanos, boolean dropped) {
+        long rtt = System.nanoTime() - startNanos;
+        int inFlight = limit.inFlight.getAndDecrement();
+        if (!limit.lock.tryLock())
+            return;
+        try {
+            double next = algorithm == Algorithm.AIMD
+                    ? aimd(limit, rtt, inFlight, dropped)
+                    : gradient(limit, rtt, dropped);
+            next = Math.max(minLimit, Math.min(maxLimit, next));
+            limit.estimate = next;
+            limit.limit = (int) next;
+        } finally {
+            limit.lock.unlock();
+        }
+    }
+
+    private double aimd(HostLimit limit, long rtt, int inFlight, boolean dropped) {
+        double current = limit.estimate;
+        if (dropped || rtt > latencyThresholdNanos) {
+            // una sola reducción por RTT, las demás muestras lentas de la misma ventana reflejan la misma congestión
+            long now = System.nanoTime();
+            if (now - limit.lastDecreaseNanos < rtt)
+                return current;
+            limit.lastDecreaseNanos = now;
+            return current * backoffRatio;
+        }
+        if (inFlight * 2 >= current)
+            return current + 1 / current;
+        return current;
+    }
+
+    private double gradient(HostLimit limit, long rtt, boolean dropped) {
+        double current = limit.estimate;
+        if (limit.probing > 0) {
+            // midiendo el mínimo con el límite reducido, el estimado real queda guardado hasta terminar
+            if (limit.minRtt == 0 || rtt < limit.minRtt)
+                limit.minRtt = rtt;
+            if (dropped)
+                limit.savedEstimate *= backoffRatio;
+            return --limit.probing > 0 ? current : limit.savedEstimate;
+        }
+        // la medición dura unas dos ventanas de RTT, se espera al menos 20 para que no ocupe más del 10% del tiempo
+        if (++limit.samples >= Math.max(minRttWindow, 20 * current)) {
+            // se reduce el límite para que el nuevo mínimo se mida sin cola: en el máximo tolerado hay en curso
+            // rttTolerance veces la capacidad del host, dividir entre 2 * rttTolerance deja la mitad de la capacidad
+            double probe = current / (2 * Math.max(1.0, rttTolerance));
+            limit.samples = 0;
+            limit.minRtt = 0;
+            limit.windowSamples = 0;
+            limit.windowRtt = 0;
+            limit.windowDropped = false;
+            limit.savedEstimate = current;
+            // las primeras muestras son de solicitudes enviadas con el límite completo, luego una ventana con el reducido
+            limit.probing = (int) (current + probe) + 1;
+            return probe;
+        }
+        if (limit.minRtt == 0 || rtt < limit.minRtt)
+            limit.minRtt = rtt;
+        limit.windowDropped |= dropped;
+        limit.windowRtt += rtt;
+        if (++limit.windowSamples < current)
+            return current;
+        // un ajuste por ventana de RTT (tantas muestras como el límite): las respuestas de la ventana reflejan el
+        // límite anterior, ajustar con cada una reaccionaría varias veces a la misma carga
+        double rttAverage = limit.windowRtt / (double) limit.windowSamples;
+        boolean windowDropped = limit.windowDropped;
+        limit.windowRtt = 0;
+        limit.windowSamples = 0;
+        limit.windowDropped = false;
+        if (windowDropped)
+            return current * backoffRatio;
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * limit.minRtt / rttAverage));
+        if (gradient == 1.0)
+            return current + Math.sqrt(current); // RTT dentro de la tolerancia, crece sin suavizado
+        double next = current * gradient + Math.sqrt(current);
+        return current + (next - current) * smoothing;
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * @param host El host.
+     * @return Límite actual del host, o el inicial si aún no se le han realizado solicitudes.
+     */
+    public int getLimit(String host) {
+        HostLimit limit = hosts.get(host);
+        return limit != null ? limit.limit : initialLimit;
+    }
+
+    /**
+     * @param host El host.
+     * @return Solicitudes en vuelo hacia el host.
+     */
+    public int getInFlight(String host) {
+        HostLimit limit = hosts.get(host);
+        return limit != null ? limit.inFlight.get() : 0;
+    }
+
+    /**
+     * @return Solicitudes rechazadas por exceder el límite.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public enum Algorithm {
+        AIMD,
+        GRADIENT
+    }
+
+    /**
+     * Estado de un host. {@code limit} se lee sin bloqueo en cada adquisición, el resto sólo se modifica con
+     * {@code lock} tomado.
+     */
+    static final class HostLimit {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile int limit;
+        private double estimate;
+        private long minRtt;
+        private int samples;
+        private int windowSamples;
+        private long windowRtt;
+        private boolean windowDropped;
+        private int probing; // muestras restantes de la medición del RTT mínimo
+        private double savedEstimate; // estimado a restaurar al terminar la medición
+        private long lastDecreaseNanos = System.nanoTime();
+
+        HostLimit(int initialLimit) {
+            this.limit = initialLimit;
+            this.estimate = initialLimit;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package ve.jj.requestbuilder;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de resolución DNS con TTL configurable, independiente del caché global de la JVM
+ * ({@code networkaddress.cache.ttl}). Es usada por {@link WarmUp} para resolver los hosts antes del primer llamado y
+ * por {@link Http2Transport} como resolvedor de OkHttp.
+ * <p>
+ * Con el transporte por defecto ({@link java.net.HttpURLConnection}) la resolución la hace la JVM, por lo que esta
+ * caché sólo sirve para precalentar el caché de la JVM.
+ */
+public class DnsCache {
+    private final long ttlNanos;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param ttl  Tiempo que se conserva una resolución.
+     * @param unit Unidad del tiempo.
+     */
+    public DnsCache(long ttl, TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * Retorna las direcciones del host, resolviéndolo sólo si no está en caché o expiró.
+     *
+     * @param host El host.
+     * @return Sus direcciones.
+     * @throws UnknownHostException Si no se puede resolver.
+     */
+    public List<InetAddress> lookup(String host) throws UnknownHostException {
+        Entry entry = entries.get(host);
+        if (entry != null && System.nanoTime() - entry.expiresAt < 0)
+            return entry.addresses;
+        return resolve(host);
+    }
+
+    /**
+     * Resuelve el host ignorando la caché y guarda el resultado.
+     *
+     * @param host El host.
+     * @return Sus direcciones.
+     * @throws UnknownHostException Si no se puede resolver.
+     */
+    public List<InetAddress> resolve(String host) throws UnknownHostException {
+        List<InetAddress> addresses = Collections.unmodifiableList(Arrays.asList(InetAddress.getAllByName(host)));
+        entries.put(host, new Entry(addresses, System.nanoTime() + ttlNanos));
+        return addresses;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry {
+        private final List<InetAddress> addresses;
+        private final long expiresAt;
+
+        Entry(List<InetAddress> addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ve.jj.requestbuilder;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transporte HTTP/2 basado en OkHttp para el {@link org.springframework.web.client.RestTemplate} de un
+ * {@link RequestBuilder}. Multiplexa las solicitudes concurrentes a un mismo host sobre pocas conexiones, en lugar de
+ * una conexión por solicitud en curso como ocurre con HTTP/1.1.
+ * <ul>
+ * <li>{@code tls()}: negocia h2 por ALPN y cae a HTTP/1.1 si el servidor no lo soporta. En JDK 8 requiere 8u252 o
+ * superior para tener ALPN.</li>
+ * <li>{@code cleartext()}: h2c con conocimiento previo, para servicios locales o internos. No hay negociación, el
+ * servidor debe aceptar HTTP/2 sin TLS.</li>
+ * </ul>
+ * OkHttp respeta el límite de streams concurrentes que anuncia el servidor ({@code SETTINGS_MAX_CONCURRENT_STREAMS}) y
+ * abre otra conexión al alcanzarlo.
+ * <p>
+ * OkHttp es una dependencia opcional, se debe agregar {@code com.squareup.okhttp3:okhttp} para usar esta clase.
+ */
+public class Http2Transport {
+    //    ********* ATTRIBUTES
+
+    private final boolean cleartext;
+    private int maxIdleConnections = 5;
+    private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+    private long connectTimeoutMillis = TimeUnit.SECONDS.toMillis(10);
+    private long readTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+    private long writeTimeoutMillis = TimeUnit.SECONDS.toMillis(30);
+    private DnsCache dnsCache; // null para usar la resolución del sistema
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * @return Transporte h2 sobre TLS (ALPN) con respaldo HTTP/1.1.
+     */
+    public static Http2Transport tls() {
+        return new Http2Transport(false);
+    }
+
+    /**
+     * @return Transporte h2c (HTTP/2 sin TLS) con conocimiento previo.
+     */
+    public static Http2Transport cleartext() {
+        return new Http2Transport(true);
+    }
+
+//    ************************* CONSTRUCTORS
+
+    private Http2Transport(boolean cleartext) {
+        this.cleartext = cleartext;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    /**
+     * @param maxIdleConnections Conexiones ociosas que se mantienen abiertas en total.
+     * @return La propia instancia.
+     */
+    public Http2Transport withMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+        return this;
+    }
+
+    public Http2Transport withKeepAlive(long keepAlive, TimeUnit unit) {
+        this.keepAliveMillis = unit.toMillis(keepAlive);
+        return this;
+    }
+
+    public Http2Transport withConnectTimeout(long timeout, TimeUnit unit) {
+        this.connectTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    public Http2Transport withReadTimeout(long timeout, TimeUnit unit) {
+        this.readTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    public Http2Transport withWriteTimeout(long timeout, TimeUnit unit) {
+        this.writeTimeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * @param dnsCache Caché DNS usada para resolver los hosts, por ejemplo la misma precalentada con {@link WarmUp}.
+     * @return La propia instancia.
+     */
+    public Http2Transport withDnsCache(DnsCache dnsCache) {
+        this.dnsCache = dnsCache;
+        return this;
+    }
+
+    /**
+     * Construye el cliente OkHttp configurado. Útil para compartir el mismo pool de conexiones entre varios clientes.
+     *
+     * @return El cliente.
+     */
+    public OkHttpClient buildClient() {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder();
+        if (dnsCache != null)
+            builder.dns(dnsCache::lookup);
+        return builder
+                .protocols(cleartext
+                        ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+                        : Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                .connectTimeout(connectTimeoutMillis, TimeUnit.MILLISECONDS)
+                .readTimeout(readTimeoutMillis, TimeUnit.MILLISECONDS)
+                .writeTimeout(writeTimeoutMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Reemplaza el transporte del {@link org.springframework.web.client.RestTemplate} del cliente.
+     *
+     * @param client El cliente.
+     * @return La propia instancia.
+     */
+    public Http2Transport install(RequestBuilder client) {
+        return install(client, buildClient());
+    }
+
+    /**
+     * Reemplaza el transporte del cliente usando un {@link OkHttpClient} ya construido (y su pool de conexiones).
+     *
+     * @param client     El cliente.
+     * @param httpClient Cliente OkHttp, por ejemplo el retornado por {@code buildClient()}.
+     * @return La propia instancia.
+     */
+    public Http2Transport install(RequestBuilder client, OkHttpClient httpClient) {
+        client.getRestTemplate().setRequestFactory(new OkHttp3ClientHttpRequestFactory(httpClient));
+        return this;
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    public boolean isCleartext() {
+        return cleartext;
+    }
+}
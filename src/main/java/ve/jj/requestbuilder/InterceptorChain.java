@@ -0,0 +1,51 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Eslabón de la cadena de interceptores: el interceptor de una posición y el resto de la cadena, que es lo que recibe
+ * ese interceptor. El último eslabón no tiene interceptor y realiza la solicitud.
+ * <p>
+ * Los eslabones son inmutables y no dependen del llamado, por lo que se crean al configurar los interceptores del
+ * cliente y se comparten entre hilos sin crear objetos por llamado. Como cada eslabón conoce su posición,
+ * {@code proceed} puede invocarse varias veces (por ejemplo para reintentar) y siempre recorre el mismo resto.
+ */
+final class InterceptorChain implements RequestInterceptor.Chain {
+    private final RequestBuilder client;
+    private final RequestInterceptor interceptor; // null en el último eslabón
+    private final InterceptorChain rest;
+    private final boolean discardBody;
+
+    /**
+     * @param client       Cliente que realiza la solicitud al final de la cadena.
+     * @param interceptors Interceptores, en el orden en que se ejecutan.
+     * @param discardBody  Si el cuerpo de la respuesta se descarta sin leerlo.
+     * @return El primer eslabón.
+     */
+    static InterceptorChain of(RequestBuilder client, RequestInterceptor[] interceptors, boolean discardBody) {
+        InterceptorChain chain = new InterceptorChain(client, null, null, discardBody);
+        for (int i = interceptors.length - 1; i >= 0; i--)
+            chain = new InterceptorChain(client, interceptors[i], chain, discardBody);
+        return chain;
+    }
+
+    private InterceptorChain(RequestBuilder client, RequestInterceptor interceptor, InterceptorChain rest, boolean discardBody) {
+        this.client = client;
+        this.interceptor = interceptor;
+        this.rest = rest;
+        this.discardBody = discardBody;
+    }
+
+    @Override
+    public ResponseWrapper proceed(RequestEntity<?> request) throws RequestBuilderException {
+        if (interceptor == null)
+            return client.executeLimited(request, discardBody);
+        return interceptor.intercept(request, rest);
+    }
+
+    @Override
+    public ResponseWrapper respond(ResponseEntity<String> response) {
+        return new ResponseWrapper(response, client.getErrorHeader(), client.isLightweightExceptions());
+    }
+}
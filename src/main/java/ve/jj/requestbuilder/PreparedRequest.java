@@ -0,0 +1,237 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Solicitud preparada: método, ruta plantilla, headers fijos y nombres de parámetros se definen una sola vez y quedan
+ * en una plantilla inmutable que puede ser usada por varios hilos a la vez. En cada llamado sólo se enlazan los valores
+ * de las variables de ruta y parámetros, y opcionalmente el cuerpo y headers adicionales.
+ * <p>
+ * Ejemplo:
+ * <pre>{@code
+ * PreparedRequest getItem = client.prepare(HttpMethod.GET, "/items/{id}").withParamNames("fields").build();
+ * ResponseWrapper response = getItem.bind(id, "name").perform();
+ * }</pre>
+ */
+public final class PreparedRequest {
+    //    ********* ATTRIBUTES
+
+    private final RequestBuilder client;
+    private final HttpMethod method;
+    private final String pathTemplate;
+    private final UriComponents template; // uri sin expandir, con los parámetros como variables al final
+    private final HttpHeaders headers; // de sólo lectura, compartidos por todos los llamados
+    private final int variableCount;
+
+//    ************************* CONSTRUCTORS
+
+    private PreparedRequest(Definition definition) {
+        this.client = definition.client;
+        this.method = definition.method;
+        this.pathTemplate = definition.pathTemplate();
+
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance()
+                .scheme(definition.scheme)
+                .host(definition.host)
+                .path(pathTemplate);
+        if (definition.port != null)
+            builder.port(definition.port);
+        if (definition.params != null)
+            builder.queryParams(definition.params);
+        for (String name : definition.paramNames)
+            builder.queryParam(name, "{" + name + "}");
+        this.template = builder.build();
+        this.variableCount = countVariables(pathTemplate) + definition.paramNames.size();
+
+        // mismo criterio que una solicitud construida paso a paso: los headers propios se agregan a los por defecto
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copy(
+                BodylessRequestBuilder.mergeHeaders(definition.defaultHeaders, definition.headers)));
+    }
+
+    /**
+     * Copia con listas propias, que pueden modificarse sin afectar al original.
+     */
+    private static HttpHeaders copy(HttpHeaders source) {
+        HttpHeaders copy = new HttpHeaders();
+        if (source != null)
+            for (Map.Entry<String, List<String>> header : source.entrySet())
+                copy.put(header.getKey(), new ArrayList<>(header.getValue()));
+        return copy;
+    }
+
+    private static int countVariables(String path) {
+        int count = 0;
+        for (int i = path.indexOf('{'); i >= 0; i = path.indexOf('{', i + 1))
+            count++;
+        return count;
+    }
+
+//    ***************** BINDING
+
+    /**
+     * Enlaza los valores del llamado.
+     *
+     * @param values Valores de las variables de ruta por orden de aparición, seguidos de los valores de los parámetros
+     *               en el orden de {@code withParamNames}.
+     * @return El llamado, listo para realizarse.
+     */
+    public Call bind(Object... values) {
+        if (values.length != variableCount)
+            throw new IllegalArgumentException("Se esperaban " + variableCount + " valores y se recibieron " + values.length);
+        return new Call(this, values);
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    RequestBuilder getClient() {
+        return client;
+    }
+
+    /**
+     * @return Valores que espera {@code bind}: variables de ruta más parámetros de {@code withParamNames}.
+     */
+    int getVariableCount() {
+        return variableCount;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    public String getPathTemplate() {
+        return pathTemplate;
+    }
+
+    /**
+     * @return Headers fijos, de sólo lectura.
+     */
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * Llamado de una solicitud preparada. No es seguro entre hilos, se debe crear uno por llamado.
+     */
+    public static final class Call {
+        private final PreparedRequest prepared;
+        private final Object[] values;
+        private HttpHeaders extraHeaders; // sólo se crean si se agrega alguno
+        private Object body;
+
+        private Call(PreparedRequest prepared, Object[] values) {
+            this.prepared = prepared;
+            this.values = values;
+        }
+
+        /**
+         * Agrega un header sólo para este llamado, los fijos de la plantilla no se modifican.
+         *
+         * @param headerName  Nombre.
+         * @param headerValue Valor.
+         * @return La propia instancia.
+         */
+        public Call withHeader(String headerName, String headerValue) {
+            if (extraHeaders == null)
+                extraHeaders = copy(prepared.headers); // las listas de la plantilla son de sólo lectura
+            extraHeaders.add(headerName, headerValue);
+            return this;
+        }
+
+        public Call withBody(Object body) {
+            this.body = body;
+            return this;
+        }
+
+        /**
+         * @return La solicitud construida.
+         */
+        public RequestEntity<?> build() {
+            return new RequestEntity<>(body, extraHeaders != null ? extraHeaders : prepared.headers, prepared.method,
+                    prepared.template.expand(values).encode().toUri());
+        }
+
+        public ResponseWrapper perform() throws RequestBuilderException {
+            return prepared.client.exchange(build(), prepared.pathTemplate);
+        }
+
+        public CompletableFuture<ResponseWrapper> performAsync() throws RequestBuilderException {
+            return prepared.client.exchangeAsync(build(), prepared.pathTemplate);
+        }
+    }
+
+    /**
+     * Definición de una solicitud preparada, obtenida con {@code RequestBuilder.prepare(...)}. Parte de los valores por
+     * defecto del cliente al momento de crearla.
+     */
+    public static final class Definition {
+        private final RequestBuilder client;
+        private final HttpMethod method;
+        private final String path;
+        private final String basePath;
+        private final String host;
+        private final String port;
+        private final HttpHeaders defaultHeaders;
+        private final MultiValueMap<String, String> params;
+        private final HttpHeaders headers = new HttpHeaders();
+        private final List<String> paramNames = new ArrayList<>();
+        private String scheme = "http";
+
+        Definition(RequestBuilder client, HttpMethod method, String path) {
+            this.client = client;
+            this.method = method;
+            this.path = path;
+            this.basePath = client.getDefaultBasePath();
+            this.host = client.getDefaultHost();
+            this.port = client.getDefaultPortString() != null
+                    ? client.getDefaultPortString()
+                    : (client.getDefaultPortInteger() != null ? client.getDefaultPortInteger().toString() : null);
+            this.defaultHeaders = client.getDefaultHeaders();
+            this.params = client.getDefaultParams();
+        }
+
+        public Definition withScheme(String scheme) {
+            this.scheme = scheme;
+            return this;
+        }
+
+        public Definition withHeader(String headerName, String headerValue) {
+            headers.add(headerName, headerValue);
+            return this;
+        }
+
+        /**
+         * Nombres de los parámetros de uri cuyos valores se enlazan en cada llamado, después de las variables de ruta.
+         *
+         * @param paramNames Nombres, en el orden en que se pasarán los valores a {@code bind}.
+         * @return La propia instancia.
+         */
+        public Definition withParamNames(String... paramNames) {
+            this.paramNames.addAll(Arrays.asList(paramNames));
+            return this;
+        }
+
+        private String pathTemplate() {
+            if (path == null)
+                return basePath != null ? basePath : "";
+            return basePath != null ? basePath + path : path;
+        }
+
+        /**
+         * @return La solicitud preparada, inmutable.
+         */
+        public PreparedRequest build() {
+            return new PreparedRequest(this);
+        }
+    }
+}
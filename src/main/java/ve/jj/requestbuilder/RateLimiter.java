@@ -0,0 +1,249 @@
+package ve.jj.requestbuilder;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limitador de tasa del lado del cliente basado en GCRA (generic cell rate algorithm), equivalente a un token bucket
+ * con capacidad {@code burst}. Cada llave (host o host + ruta plantilla) guarda únicamente su "tiempo teórico de
+ * llegada" en un {@link AtomicLong} que se actualiza con CAS, por lo que no hay bloqueos entre hilos.
+ * <p>
+ * Se configura en el cliente con {@code RequestBuilder.setRateLimiter(...)}.
+ */
+public class RateLimiter {
+    //    ********* ATTRIBUTES
+
+    private static final long REJECTED = -1L;
+
+    private static final ScheduledExecutorService DELAYER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-builder-rate-limiter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long intervalNanos; // tiempo entre permisos
+    private final long toleranceNanos; // ráfaga permitida expresada en tiempo
+    private final KeyType keyType;
+    private Mode mode = Mode.BLOCK;
+    private long maxWaitNanos = Long.MAX_VALUE; // espera máxima en BLOCK y ASYNC_DELAY, si se excede se rechaza
+    private Listener listener;
+
+    private final ConcurrentHashMap<String, AtomicLong> cells = new ConcurrentHashMap<>();
+
+    //    métricas
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttledNanos = new LongAdder();
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * @param permitsPerSecond Solicitudes por segundo permitidas por host.
+     * @param burst            Solicitudes que se pueden realizar de golpe antes de empezar a limitar.
+     * @return El limitador.
+     */
+    public static RateLimiter perHost(double permitsPerSecond, int burst) {
+        return new RateLimiter(permitsPerSecond, burst, KeyType.HOST);
+    }
+
+    /**
+     * @param permitsPerSecond Solicitudes por segundo permitidas por ruta plantilla (por ejemplo {@code /items/{id}}).
+     * @param burst            Solicitudes que se pueden realizar de golpe antes de empezar a limitar.
+     * @return El limitador.
+     */
+    public static RateLimiter perPathTemplate(double permitsPerSecond, int burst) {
+        return new RateLimiter(permitsPerSecond, burst, KeyType.PATH_TEMPLATE);
+    }
+
+    /**
+     * Futuro que se completa luego del retraso indicado, sin ocupar un hilo mientras tanto.
+     *
+     * @param delayNanos Retraso en nanosegundos.
+     * @return El futuro.
+     */
+    static CompletableFuture<Void> delay(long delayNanos) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        DELAYER.schedule(() -> future.complete(null), delayNanos, TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+//    ************************* CONSTRUCTORS
+
+    public RateLimiter(double permitsPerSecond, int burst, KeyType keyType) {
+        if (permitsPerSecond <= 0 || burst < 1)
+            throw new IllegalArgumentException("La tasa y la ráfaga deben ser mayores que cero");
+        this.intervalNanos = Math.max(1L, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+        this.keyType = keyType;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    public RateLimiter withMode(Mode mode) {
+        this.mode = mode;
+        return this;
+    }
+
+    /**
+     * @param maxWait Espera máxima tolerada en los modos {@code BLOCK} y {@code ASYNC_DELAY}, si un permiso requiere
+     *                esperar más la solicitud se rechaza.
+     * @param unit    Unidad del tiempo.
+     * @return La propia instancia.
+     */
+    public RateLimiter withMaxWait(long maxWait, TimeUnit unit) {
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        return this;
+    }
+
+    public RateLimiter withListener(Listener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+//    ***************** LIMITER METHODS:
+
+    /**
+     * Calcula la llave según el tipo configurado.
+     *
+     * @param uri          Uri de la solicitud.
+     * @param pathTemplate Ruta sin sustituir las variables. De no conocerse se usa sólo el host: la ruta ya sustituida
+     *                     crearía una llave por cada id, sin límite efectivo y sin cota de memoria.
+     * @return La llave.
+     */
+    String keyFor(URI uri, String pathTemplate) {
+        if (keyType == KeyType.HOST || pathTemplate == null)
+            return uri.getHost();
+        return uri.getHost() + pathTemplate;
+    }
+
+    /**
+     * Reserva un permiso para la llave.
+     *
+     * @param key Llave.
+     * @return Nanosegundos que se deben esperar antes de usar el permiso (0 si puede usarse de inmediato), o -1 si se
+     * rechaza porque el modo es {@code FAIL_FAST} o la espera supera la máxima configurada.
+     */
+    long reserve(String key) {
+        AtomicLong tat = cells.get(key);
+        if (tat == null)
+            tat = cells.computeIfAbsent(key, k -> new AtomicLong(System.nanoTime()));
+        for (; ; ) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long base = current - now > 0 ? current : now;
+            long wait = base - toleranceNanos - now;
+            if (wait > 0 && (mode == Mode.FAIL_FAST || wait > maxWaitNanos)) {
+                rejected.increment();
+                if (listener != null)
+                    listener.onRejected(key);
+                return REJECTED;
+            }
+            if (tat.compareAndSet(current, base + intervalNanos)) {
+                acquired.increment();
+                if (wait <= 0)
+                    return 0;
+                throttled.increment();
+                throttledNanos.add(wait);
+                if (listener != null)
+                    listener.onThrottled(key, wait);
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Obtiene un permiso esperando (sin ocupar monitores) lo necesario.
+     *
+     * @param key Llave.
+     * @return {@code false} si la solicitud fue rechazada o el hilo interrumpido mientras esperaba.
+     */
+    boolean acquire(String key) {
+        long wait = reserve(key);
+        if (wait == REJECTED)
+            return false;
+        long deadline = System.nanoTime() + wait;
+        while (wait > 0) {
+            LockSupport.parkNanos(this, wait);
+            if (Thread.currentThread().isInterrupted())
+                return false;
+            wait = deadline - System.nanoTime();
+        }
+        return true;
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    public KeyType getKeyType() {
+        return keyType;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return Permisos concedidos, con o sin espera.
+     */
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return Permisos concedidos que tuvieron que esperar.
+     */
+    public long getThrottledCount() {
+        return throttled.sum();
+    }
+
+    /**
+     * @return Solicitudes rechazadas.
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return Tiempo total de espera impuesto, en nanosegundos.
+     */
+    public long getThrottledNanos() {
+        return throttledNanos.sum();
+    }
+
+    public enum KeyType {
+        HOST,
+        PATH_TEMPLATE
+    }
+
+    public enum Mode {
+        /**
+         * El hilo llamador espera hasta obtener el permiso.
+         */
+        BLOCK,
+        /**
+         * Se rechaza de inmediato con {@code RATE_LIMITED} si no hay permiso disponible.
+         */
+        FAIL_FAST,
+        /**
+         * En {@code performAsync()} la solicitud se reprograma sin ocupar un hilo, en {@code perform()} se comporta
+         * como {@code BLOCK}.
+         */
+        ASYNC_DELAY
+    }
+
+    /**
+     * Receptor de eventos del limitador, para publicar métricas. Se invoca en el hilo que solicita el permiso.
+     */
+    public interface Listener {
+        void onThrottled(String key, long delayNanos);
+
+        void onRejected(String key);
+    }
+}
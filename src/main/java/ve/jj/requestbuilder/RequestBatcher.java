@@ -0,0 +1,332 @@
+package ve.jj.requestbuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrupa solicitudes individuales por id (como {@code GET /items/{id}}) en una sola llamada a un endpoint masivo (como
+ * {@code GET /items?ids=a,b,c}), a cambio de un retraso acotado. Cada llamador recibe su propio
+ * {@link ResponseWrapper} con el elemento que le corresponde.
+ * <p>
+ * Un lote se envía al alcanzar {@code maxBatchSize} ids distintos o al pasar {@code maxDelay} desde el primer id. Los
+ * ids repetidos dentro de un mismo lote se piden una sola vez.
+ * <p>
+ * Ejemplo:
+ * <pre>{@code
+ * RequestBatcher items = RequestBatcher.create(
+ *         client.prepare(HttpMethod.GET, "/items").withParamNames("ids").build(),
+ *         RequestBatcher.arrayByField("id"))
+ *     .withMaxBatchSize(50).withMaxDelay(5, TimeUnit.MILLISECONDS);
+ * Item item = items.perform(id).getBody(Item.class);
+ * }</pre>
+ * La solicitud preparada debe tener una única variable, la de los ids, que recibe los ids unidos por el separador.
+ * <p>
+ * Los lotes se envían con el ejecutor configurado, o el del cliente. Sin ninguno, el lote que se llena se envía en el
+ * hilo que agregó el último id y el que vence por tiempo en un pool de hilos compartido por todos los agrupadores: el
+ * hilo del temporizador sólo programa, nunca realiza la llamada masiva.
+ */
+public class RequestBatcher {
+    //    ********* ATTRIBUTES
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "request-builder-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // envía los lotes vencidos por tiempo sin ejecutor configurado, para que una llamada lenta no atrase a los demás
+    private static final Executor SENDER = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "request-builder-batch-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final PreparedRequest bulk;
+    private final Demultiplexer demultiplexer;
+    private int maxBatchSize = 100;
+    private long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(10);
+    private String separator = ",";
+    private Executor executor;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<String, List<CompletableFuture<ResponseWrapper>>> pending; // lote en formación, null si no hay
+
+    //    métricas
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * @param bulk          Solicitud preparada del endpoint masivo, con una única variable para los ids.
+     * @param demultiplexer Separa la respuesta masiva en el cuerpo de cada id.
+     * @return El agrupador.
+     * @throws IllegalArgumentException Si la solicitud no tiene exactamente una variable.
+     */
+    public static RequestBatcher create(PreparedRequest bulk, Demultiplexer demultiplexer) {
+        if (bulk.getVariableCount() != 1)
+            throw new IllegalArgumentException("La solicitud masiva debe tener una única variable, la de los ids, y tiene "
+                    + bulk.getVariableCount());
+        return new RequestBatcher(bulk, demultiplexer);
+    }
+
+    /**
+     * Separa una respuesta con un arreglo JSON de elementos, identificando cada uno por un campo.
+     *
+     * @param idField Campo con el id, por ejemplo {@code "id"}.
+     * @return El separador.
+     */
+    public static Demultiplexer arrayByField(String idField) {
+        return bulk -> {
+            Map<String, String> bodies = new HashMap<>();
+            for (JsonNode item : bulk.getBody(JsonNode.class)) {
+                JsonNode id = item.get(idField);
+                if (id != null)
+                    bodies.put(id.asText(), item.toString());
+            }
+            return bodies;
+        };
+    }
+
+    /**
+     * Separa una respuesta con un objeto JSON cuyas llaves son los ids.
+     *
+     * @return El separador.
+     */
+    public static Demultiplexer objectByKey() {
+        return bulk -> {
+            Map<String, String> bodies = new HashMap<>();
+            Iterator<Map.Entry<String, JsonNode>> fields = bulk.getBody(JsonNode.class).fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                bodies.put(field.getKey(), field.getValue().toString());
+            }
+            return bodies;
+        };
+    }
+
+//    ************************* CONSTRUCTORS
+
+    private RequestBatcher(PreparedRequest bulk, Demultiplexer demultiplexer) {
+        this.bulk = bulk;
+        this.demultiplexer = demultiplexer;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    public RequestBatcher withMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+        return this;
+    }
+
+    /**
+     * @param maxDelay Retraso máximo desde que el primer id entra al lote hasta que se envía.
+     * @param unit     Unidad del retraso.
+     * @return La propia instancia.
+     */
+    public RequestBatcher withMaxDelay(long maxDelay, TimeUnit unit) {
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        return this;
+    }
+
+    public RequestBatcher withSeparator(String separator) {
+        this.separator = separator;
+        return this;
+    }
+
+    /**
+     * @param executor Ejecutor de los lotes, {@code null} para usar el del cliente.
+     * @return La propia instancia.
+     */
+    public RequestBatcher withExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+//    ***************** BATCHING
+
+    /**
+     * Agrega un id al lote en formación.
+     *
+     * @param id Id del elemento.
+     * @return Futuro con la respuesta del elemento. Falla con {@code BATCH_ITEM_MISSING} si la respuesta masiva no lo
+     * incluye, o con el error de la llamada masiva.
+     */
+    public CompletableFuture<ResponseWrapper> submit(Object id) {
+        CompletableFuture<ResponseWrapper> future = new CompletableFuture<>();
+        Map<String, List<CompletableFuture<ResponseWrapper>>> full = null;
+        requests.increment();
+        lock.lock();
+        try {
+            if (pending == null) {
+                Map<String, List<CompletableFuture<ResponseWrapper>>> batch = new LinkedHashMap<>();
+                pending = batch;
+                TIMER.schedule(() -> flush(batch), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+            pending.computeIfAbsent(String.valueOf(id), key -> new ArrayList<>(1)).add(future);
+            if (pending.size() >= maxBatchSize) {
+                full = pending;
+                pending = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null)
+            dispatch(full, false);
+        return future;
+    }
+
+    /**
+     * Agrega un id al lote y espera su respuesta.
+     *
+     * @param id Id del elemento.
+     * @return La respuesta del elemento.
+     * @throws RequestBuilderException Si la respuesta masiva no lo incluye o la llamada masiva falla.
+     */
+    public ResponseWrapper perform(Object id) throws RequestBuilderException {
+        try {
+            return submit(id).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RequestBuilderException)
+                throw (RequestBuilderException) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * Envía el lote vencido por tiempo, si no fue enviado antes por llenarse.
+     */
+    private void flush(Map<String, List<CompletableFuture<ResponseWrapper>>> batch) {
+        lock.lock();
+        try {
+            if (pending != batch)
+                return;
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+        dispatch(batch, true);
+    }
+
+    /**
+     * @param timed Si el lote venció por tiempo, en cuyo caso se está en el hilo del temporizador.
+     */
+    private void dispatch(Map<String, List<CompletableFuture<ResponseWrapper>>> batch, boolean timed) {
+        Executor target = executor != null ? executor : bulk.getClient().getExecutor();
+        if (target == null && !timed) {
+            send(batch);
+            return;
+        }
+        if (target == null)
+            target = SENDER;
+        try {
+            target.execute(() -> send(batch));
+        } catch (RuntimeException e) {
+            // ejecutor saturado o detenido: nadie completaría los futuros del lote
+            fail(batch, e);
+        }
+    }
+
+    private void send(Map<String, List<CompletableFuture<ResponseWrapper>>> batch) {
+        batches.increment();
+        try {
+            RequestBuilder client = bulk.getClient();
+            RequestEntity<?> request = bulk.bind(String.join(separator, batch.keySet())).build();
+            ResponseWrapper response = client.exchange(request, bulk.getPathTemplate());
+            if (response.hasError()) {
+                batch.values().forEach(futures -> futures.forEach(future -> future.complete(response)));
+                return;
+            }
+            Map<String, String> bodies = demultiplexer.split(response);
+            ResponseEntity<String> bulkResponse = response.getResponse();
+            HttpHeaders itemHeaders = itemHeaders(bulkResponse.getHeaders());
+            for (Map.Entry<String, List<CompletableFuture<ResponseWrapper>>> entry : batch.entrySet()) {
+                String body = bodies.get(entry.getKey());
+                if (body == null) {
+                    RequestBuilderException missing = itemMissing(client, request, entry.getKey());
+                    entry.getValue().forEach(future -> future.completeExceptionally(missing));
+                    continue;
+                }
+                ResponseWrapper item = new ResponseWrapper(
+                        new ResponseEntity<>(body, itemHeaders, bulkResponse.getStatusCode()),
+                        client.getErrorHeader(), client.isLightweightExceptions());
+                entry.getValue().forEach(future -> future.complete(item));
+            }
+        } catch (Throwable e) {
+            // cualquier falla (enlazar los ids, la llamada, el separador) debe completar todos los futuros
+            fail(batch, e);
+            if (e instanceof Error)
+                throw (Error) e;
+        }
+    }
+
+    private static void fail(Map<String, List<CompletableFuture<ResponseWrapper>>> batch, Throwable e) {
+        batch.values().forEach(futures -> futures.forEach(future -> future.completeExceptionally(e)));
+    }
+
+    /**
+     * Headers de la respuesta masiva para cada elemento, sin los que describen el cuerpo masivo. Se comparten entre
+     * los elementos del lote, por eso son de sólo lectura.
+     */
+    private static HttpHeaders itemHeaders(HttpHeaders bulkHeaders) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.putAll(bulkHeaders);
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.TRANSFER_ENCODING);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private static RequestBuilderException itemMissing(RequestBuilder client, RequestEntity<?> request, String id) {
+        RequestBuilderException.BuildErrorType type = RequestBuilderException.BuildErrorType.BATCH_ITEM_MISSING;
+        String message = type.getDescription() + ": " + id;
+        RequestBuilderException exception = client.isLightweightExceptions()
+                ? RequestBuilderException.stackless(message, null, type)
+                : new RequestBuilderException(message, type);
+        return exception.withUri(request.getUrl());
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    /**
+     * @return Ids agregados desde la creación.
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return Llamadas masivas realizadas desde la creación.
+     */
+    public long getBatchCount() {
+        return batches.sum();
+    }
+
+    /**
+     * Separa la respuesta masiva en el cuerpo JSON de cada id.
+     */
+    @FunctionalInterface
+    public interface Demultiplexer {
+        /**
+         * @param bulk Respuesta del endpoint masivo.
+         * @return Cuerpo de cada elemento por id. Los ids ausentes se reportan como {@code BATCH_ITEM_MISSING}.
+         * @throws RequestBuilderException Si no se puede leer la respuesta.
+         */
+        Map<String, String> split(ResponseWrapper bulk) throws RequestBuilderException;
+    }
+}
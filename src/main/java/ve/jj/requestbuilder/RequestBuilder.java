@@ -4,12 +4,22 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.RequestEntity;
 import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Clase para construir y realizar solicitudes REST.
@@ -22,16 +32,30 @@ public class RequestBuilder {
     private String path; // path por defecto
     private Integer port; // puerto por defecto en entero
     private String sPort; // puerto por defecto en String
-    private HttpHeaders headers; // headers por defecto
-    private MultiValueMap<String, String> params; // parametros parametros de uri por defecto
+    private HttpHeaders headers; // headers por defecto, de sólo lectura
+    private MultiValueMap<String, String> params; // parametros parametros de uri por defecto, de sólo lectura
 
     private BodylessRequestBuilder bodilessBuilder; // constructor de solicitudes sin cuerpo
     private RequestWithBodyBuilder fullBuilder; // constructor de solicitudes con cuerpo
 
     private RestTemplate rest; // ejecutor de solicitudes
+    private final BodyBufferingConverter bodyConverter = new BodyBufferingConverter(); // lector de cuerpos con volcado a disco
 
     private String errorHeader = "ERROR"; // header con bandera de error proporcionado por backend.
 
+    private boolean lightweightExceptions = false; // excepciones sin traza y preasignadas en fallos esperados
+
+    private Executor executor; // ejecutor de solicitudes asíncronas, null para ejecutar en el hilo llamador
+
+    private RateLimiter rateLimiter; // limitador de tasa del lado del cliente, null si no se limita
+    private ConcurrencyLimiter concurrencyLimiter; // limitador adaptativo de solicitudes en vuelo, null si no se limita
+
+    private static final RequestInterceptor[] NO_INTERCEPTORS = new RequestInterceptor[0];
+    private volatile RequestInterceptor[] interceptors = NO_INTERCEPTORS; // fijo, se reemplaza completo al configurar
+    private volatile InterceptorChain[] chains; // primer eslabón conservando y descartando el cuerpo, null si no hay
+
+    private volatile boolean warm = false; // si el último calentamiento terminó con éxito
+
 //    ************************* CONSTRUCTORS
 
     /**
@@ -47,6 +71,7 @@ public class RequestBuilder {
         bodilessBuilder = null;
         fullBuilder = null;
         rest = new RestTemplate();
+        initResttemplate();
     }
 
     /**
@@ -74,8 +99,8 @@ public class RequestBuilder {
         this.path = defaultBasePath;
         this.port = defaultPort;
         this.sPort = null;
-        this.headers = defaultHeaders;
-        this.params = defaultParams;
+        this.headers = readOnlyCopy(defaultHeaders);
+        this.params = readOnlyCopy(defaultParams);
         bodilessBuilder = null;
         fullBuilder = null;
         rest = new RestTemplate();
@@ -95,6 +120,8 @@ public class RequestBuilder {
                 break;
             }
         }
+        if (!rest.getMessageConverters().contains(bodyConverter))
+            rest.getMessageConverters().add(0, bodyConverter);
     }
 
     /**
@@ -122,8 +149,8 @@ public class RequestBuilder {
         this.path = defaultBasePath;
         this.sPort = defaultPort;
         this.port = null;
-        this.headers = defaultHeaders;
-        this.params = defaultParams;
+        this.headers = readOnlyCopy(defaultHeaders);
+        this.params = readOnlyCopy(defaultParams);
         bodilessBuilder = null;
         fullBuilder = null;
         rest = new RestTemplate();
@@ -134,14 +161,11 @@ public class RequestBuilder {
 
     /**
      * Setea los valores por defecto en el constructor de la solicitud.
+     *
+     * @param builder Constructor recién instanciado.
+     * @return El mismo constructor.
      */
-    private void setDefaults() {
-        BodylessRequestBuilder builder;
-        if (fullBuilder == null) {
-            builder = bodilessBuilder;
-        } else
-            builder = fullBuilder;
-
+    private <T extends BodylessRequestBuilder> T setDefaults(T builder) {
         if (host != null)
             builder.withHost(host);
         if (path != null )
@@ -150,30 +174,59 @@ public class RequestBuilder {
             builder.withPort(sPort);
         } else if (port != null)
             builder.withPort(port);
-        if (headers != null)
-            builder.setHeaders(headers);
-        if (params != null)
-            builder.setParams(params);
+        builder.withDefaults(headers, params);
+        return builder;
+    }
 
-        initResttemplate();
+    /**
+     * Copia de sólo lectura. Los valores por defecto se comparten entre todas las solicitudes, por lo que nunca se
+     * modifican: cambiarlos implica reemplazarlos por una copia nueva.
+     */
+    private static HttpHeaders readOnlyCopy(HttpHeaders source) {
+        return source == null ? null : HttpHeaders.readOnlyHttpHeaders(mutableCopy(source));
+    }
+
+    private static MultiValueMap<String, String> readOnlyCopy(MultiValueMap<String, String> source) {
+        return source == null ? null : CollectionUtils.unmodifiableMultiValueMap(mutableCopy(source));
+    }
+
+    private static HttpHeaders mutableCopy(HttpHeaders source) {
+        HttpHeaders copy = new HttpHeaders();
+        if (source != null)
+            for (Map.Entry<String, List<String>> header : source.entrySet())
+                copy.put(header.getKey(), new ArrayList<>(header.getValue()));
+        return copy;
+    }
+
+    private static MultiValueMap<String, String> mutableCopy(MultiValueMap<String, String> source) {
+        MultiValueMap<String, String> copy = new LinkedMultiValueMap<>();
+        if (source != null)
+            for (Map.Entry<String, List<String>> param : source.entrySet())
+                copy.put(param.getKey(), new ArrayList<>(param.getValue()));
+        return copy;
     }
 
     /**
-     * Instancia un constructor con body.
+     * Instancia un constructor con body. Se retorna el constructor creado en lugar de leerlo del campo, que otro hilo
+     * puede reemplazar en cualquier momento.
      */
-    private void withBody() {
+    private RequestWithBodyBuilder withBody() {
+        RequestWithBodyBuilder builder = setDefaults(RequestWithBodyBuilder.newInstance(this));
         bodilessBuilder = null;
-        fullBuilder = RequestWithBodyBuilder.newInstance(this);
-        setDefaults();
+        fullBuilder = builder;
+        return builder;
     }
 
     /**
      * Instancia un constructor sin body.
+     *
+     * @see #withBody()
      */
-    private void withoutBody() {
+    private BodylessRequestBuilder withoutBody() {
+        BodylessRequestBuilder builder = setDefaults(BodylessRequestBuilder.newInstance(this));
         fullBuilder = null;
-        bodilessBuilder = BodylessRequestBuilder.newInstance(this);
-        setDefaults();
+        bodilessBuilder = builder;
+        return builder;
     }
 
     /**
@@ -182,8 +235,7 @@ public class RequestBuilder {
      * @return Constructor de solicitudes sin body con los campos por defecto seteados de antemano y el metodo http GET.
      */
     public BodylessRequestBuilder get() {
-        withoutBody();
-        return bodilessBuilder.withHttpMethod(HttpMethod.GET);
+        return withoutBody().withHttpMethod(HttpMethod.GET);
     }
 
     /**
@@ -192,8 +244,7 @@ public class RequestBuilder {
      * @return Constructor de solicitudes sin body con los campos por defecto seteados de antemano y el metodo http DELETE.
      */
     public BodylessRequestBuilder delete() {
-        withoutBody();
-        return bodilessBuilder.withHttpMethod(HttpMethod.DELETE);
+        return withoutBody().withHttpMethod(HttpMethod.DELETE);
     }
 
     /**
@@ -202,8 +253,7 @@ public class RequestBuilder {
      * @return Constructor de solicitudes sin body con los campos por defecto seteados de antemano y el metodo http HEAD.
      */
     public BodylessRequestBuilder head() {
-        withoutBody();
-        return bodilessBuilder.withHttpMethod(HttpMethod.HEAD);
+        return withoutBody().withHttpMethod(HttpMethod.HEAD);
     }
 
     /**
@@ -212,8 +262,7 @@ public class RequestBuilder {
      * @return Constructor de solicitudes sin body con los campos por defecto seteados de antemano y el metodo http OPTIONS.
      */
     public BodylessRequestBuilder options() {
-        withoutBody();
-        return bodilessBuilder.withHttpMethod(HttpMethod.OPTIONS);
+        return withoutBody().withHttpMethod(HttpMethod.OPTIONS);
     }
 
     /**
@@ -222,8 +271,7 @@ public class RequestBuilder {
      * @return Constructor de solicitudes con body con los campos por defecto seteados de antemano y el metodo http POST.
      */
     public RequestWithBodyBuilder post() {
-        withBody();
-        return fullBuilder.withHttpMethod(HttpMethod.POST);
+        return withBody().withHttpMethod(HttpMethod.POST);
     }
 
     /**
@@ -232,8 +280,7 @@ public class RequestBuilder {
      * @return Constructor de solicitudes con body con los campos por defecto seteados de antemano y el metodo http PUT.
      */
     public RequestWithBodyBuilder put() {
-        withBody();
-        return fullBuilder.withHttpMethod(HttpMethod.PUT);
+        return withBody().withHttpMethod(HttpMethod.PUT);
     }
 
     /**
@@ -242,8 +289,32 @@ public class RequestBuilder {
      * @return Constructor de solicitudes con body con los campos por defecto seteados de antemano y el metodo http PATCH.
      */
     public RequestWithBodyBuilder patch() {
-        withBody();
-        return fullBuilder.withHttpMethod(HttpMethod.PATCH);
+        return withBody().withHttpMethod(HttpMethod.PATCH);
+    }
+
+    /**
+     * Inicia la definición de una solicitud preparada, reutilizable y segura entre hilos, con los campos por defecto
+     * actuales de esta instancia.
+     *
+     * @param method Método HTTP.
+     * @param path   Ruta plantilla, se le anexa a la ruta base de haberla. Ejemplo: "/items/{id}".
+     * @return La definición, que se completa y se construye con {@code build()}.
+     */
+    public PreparedRequest.Definition prepare(HttpMethod method, String path) {
+        return new PreparedRequest.Definition(this, method, path);
+    }
+
+    /**
+     * Calienta el cliente antes de recibir tráfico: resuelve el DNS de los hosts, abre conexiones y prepara los
+     * deserializadores de los tipos de respuesta, según la configuración indicada. Bloquea hasta terminar o hasta el
+     * tiempo límite de la configuración.
+     *
+     * @param warmUp La configuración del calentamiento.
+     * @return Si todos los pasos terminaron con éxito, el mismo valor que luego retorna {@code isWarm()}.
+     */
+    public boolean warmUp(WarmUp warmUp) {
+        warm = warmUp.run(this);
+        return warm;
     }
 
     /**
@@ -259,29 +330,211 @@ public class RequestBuilder {
 
     /**
      * Construye y ejecuta la solicitud, y recibe y envuelve la respuesta.
+     * <p>
+     * La solicitud se construye a partir del constructor recibido y no del último iniciado en este cliente, por lo que
+     * varios hilos pueden compartir el cliente sin enviar la solicitud de otro.
      *
+     * @param builder Constructor de la solicitud a realizar.
      * @return La respuesta de la solicitud envuelta en un {@link ResponseWrapper}
      * @throws RequestBuilderException Arroja esta excepción en caso de que el RestTemplate falle al realizar la solicitud
-     *                                 o falle la validación de {@code isReadyToPerform()}
+     *                                 o no se haya recibido un constructor.
+     */
+    ResponseWrapper perform(BodylessRequestBuilder builder) throws RequestBuilderException {
+        if (builder != null) {
+            return exchange(builder.build(), builder.getPathTemplate(), builder.isResponseBodyDiscarded());
+        } else {
+            throw notReady();
+        }
+    }
+
+    /**
+     * Crea la excepción de solicitud no construida, preasignada si está activo el modo de excepciones livianas.
      */
-    ResponseWrapper perform() throws RequestBuilderException {
-        if (isReadyToPerform()) {
-            RequestEntity request = (bodilessBuilder == null ? fullBuilder.build() : bodilessBuilder.build());
+    private RequestBuilderException notReady() {
+        RequestBuilderException.BuildErrorType type = RequestBuilderException.BuildErrorType.NO_REQUEST_BUILT;
+        if (lightweightExceptions)
+            return RequestBuilderException.preallocated(type);
+        return new RequestBuilderException(type.getDescription(), type);
+    }
+
+    /**
+     * Construye la solicitud en el hilo llamador y la ejecuta en el {@link Executor} configurado. Con
+     * {@code useVirtualThreads()} cada llamado bloqueante corre en su propio hilo virtual, lo que permite mantener
+     * miles de solicitudes concurrentes con la misma API síncrona.
+     * <p>
+     * Si no hay ejecutor configurado la solicitud se realiza en el hilo llamador y se retorna el futuro ya completado.
+     *
+     * @param builder Constructor de la solicitud a realizar.
+     * @return Futuro con la respuesta envuelta, o completado con {@link RequestBuilderException} en caso de fallo.
+     * @throws RequestBuilderException Si no se recibió un constructor.
+     */
+    CompletableFuture<ResponseWrapper> performAsync(BodylessRequestBuilder builder) throws RequestBuilderException {
+        if (builder == null)
+            throw notReady();
+        return exchangeAsync(builder.build(), builder.getPathTemplate(), builder.isResponseBodyDiscarded());
+    }
+
+    /**
+     * Ejecuta una solicitud ya construida en el {@link Executor} configurado. Si el limitador de tasa está en modo
+     * {@code ASYNC_DELAY} y no hay permiso disponible, la solicitud se reprograma sin ocupar un hilo del ejecutor.
+     *
+     * @param request      Solicitud construida.
+     * @param pathTemplate Ruta sin sustituir variables, usada como llave del limitador de tasa. Si es
+     *                     {@code null} el limitador usa el host.
+     * @return Futuro con la respuesta envuelta.
+     */
+    CompletableFuture<ResponseWrapper> exchangeAsync(RequestEntity<?> request, String pathTemplate) {
+        return exchangeAsync(request, pathTemplate, false);
+    }
+
+    /**
+     * @param discardBody Si el cuerpo de la respuesta se descarta sin leerlo.
+     * @see #exchangeAsync(RequestEntity, String)
+     */
+    CompletableFuture<ResponseWrapper> exchangeAsync(RequestEntity<?> request, String pathTemplate, boolean discardBody) {
+        if (executor == null) {
             try {
-                return new ResponseWrapper(rest.exchange(request, String.class), errorHeader);
-            } catch (RestClientException e) {
-                String requestURI = (bodilessBuilder == null ? fullBuilder : bodilessBuilder).getUri().toString();
-                throw new RequestBuilderException(
-                        "Ha ocurrido un error realizando la solicitud a: " + requestURI, e,
-                        RequestBuilderException.BuildErrorType.REQUEST_FAILED
-                );
+                return CompletableFuture.completedFuture(exchange(request, pathTemplate, discardBody));
+            } catch (RuntimeException e) {
+                return failed(e);
             }
-        } else {
-            throw new RequestBuilderException(
-                    "Se intenta realizar la Solicitud HTTP sin estar lista",
-                    RequestBuilderException.BuildErrorType.NO_REQUEST_BUILT
-            );
         }
+        if (rateLimiter != null && rateLimiter.getMode() == RateLimiter.Mode.ASYNC_DELAY) {
+            long wait = rateLimiter.reserve(rateLimiter.keyFor(request.getUrl(), pathTemplate));
+            if (wait < 0)
+                return failed(rateLimited(request));
+            if (wait > 0)
+                return RateLimiter.delay(wait).thenApplyAsync(ignored -> execute(request, discardBody), executor);
+            return CompletableFuture.supplyAsync(() -> execute(request, discardBody), executor);
+        }
+        return CompletableFuture.supplyAsync(() -> exchange(request, pathTemplate, discardBody), executor);
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable e) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * Obtiene permiso del limitador de tasa (de haberlo), ejecuta una solicitud ya construida y envuelve la respuesta.
+     *
+     * @param request      Solicitud construida.
+     * @param pathTemplate Ruta sin sustituir variables, usada como llave del limitador de tasa. Si es
+     *                     {@code null} el limitador usa el host.
+     * @return La respuesta envuelta en un {@link ResponseWrapper}.
+     * @throws RequestBuilderException En caso de que el RestTemplate falle al realizar la solicitud o el limitador de
+     *                                 tasa la rechace.
+     */
+    ResponseWrapper exchange(RequestEntity<?> request, String pathTemplate) throws RequestBuilderException {
+        return exchange(request, pathTemplate, false);
+    }
+
+    /**
+     * @param discardBody Si el cuerpo de la respuesta se descarta sin leerlo.
+     * @see #exchange(RequestEntity, String)
+     */
+    ResponseWrapper exchange(RequestEntity<?> request, String pathTemplate, boolean discardBody) throws RequestBuilderException {
+        if (rateLimiter != null && !rateLimiter.acquire(rateLimiter.keyFor(request.getUrl(), pathTemplate)))
+            throw rateLimited(request);
+        return execute(request, discardBody);
+    }
+
+    /**
+     * Pasa la solicitud por los interceptores, de haberlos, y la realiza.
+     */
+    private ResponseWrapper execute(RequestEntity<?> request, boolean discardBody) throws RequestBuilderException {
+        InterceptorChain[] current = chains;
+        if (current == null)
+            return executeLimited(request, discardBody);
+        return current[discardBody ? 1 : 0].proceed(request);
+    }
+
+    /**
+     * Realiza la solicitud con el {@link RestTemplate}, dentro del limitador de concurrencia de haberlo.
+     */
+    ResponseWrapper executeLimited(RequestEntity<?> request, boolean discardBody) throws RequestBuilderException {
+        if (concurrencyLimiter == null)
+            return send(request, discardBody);
+        ConcurrencyLimiter.HostLimit limit = concurrencyLimiter.tryAcquire(request.getUrl().getHost());
+        if (limit == null)
+            throw concurrencyLimited(request);
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            ResponseWrapper response = send(request, discardBody);
+            dropped = false;
+            return response;
+        } catch (RequestBuilderException e) {
+            dropped = e.getStatusCode() == null; // con respuesta HTTP el host sí respondió
+            throw e;
+        } finally {
+            concurrencyLimiter.release(limit, start, dropped);
+        }
+    }
+
+    /**
+     * Realiza la solicitud. El cuerpo se lee como {@link ResponseBody}, sin decodificarlo, o se descarta si no interesa.
+     */
+    private ResponseWrapper send(RequestEntity<?> request, boolean discardBody) throws RequestBuilderException {
+        try {
+            if (discardBody || request.getMethod() == HttpMethod.HEAD)
+                return ResponseWrapper.discarded(rest.exchange(request, BodyBufferingConverter.Discarded.class), errorHeader, lightweightExceptions);
+            return ResponseWrapper.buffered(rest.exchange(request, ResponseBody.class), errorHeader, lightweightExceptions);
+        } catch (RestClientException e) {
+            if (e.contains(BodyBufferingConverter.TooLargeException.class))
+                throw responseTooLarge(request, e);
+            throw requestFailed(request, e);
+        }
+    }
+
+    /**
+     * Crea la excepción de solicitud rechazada por el limitador de tasa.
+     */
+    private RequestBuilderException rateLimited(RequestEntity<?> request) {
+        RequestBuilderException.BuildErrorType type = RequestBuilderException.BuildErrorType.RATE_LIMITED;
+        RequestBuilderException exception = lightweightExceptions
+                ? RequestBuilderException.stackless(type.getDescription(), null, type)
+                : new RequestBuilderException(type.getDescription(), type);
+        return exception.withUri(request.getUrl());
+    }
+
+    /**
+     * Crea la excepción de solicitud rechazada por el limitador de concurrencia.
+     */
+    private RequestBuilderException concurrencyLimited(RequestEntity<?> request) {
+        RequestBuilderException.BuildErrorType type = RequestBuilderException.BuildErrorType.CONCURRENCY_LIMITED;
+        RequestBuilderException exception = lightweightExceptions
+                ? RequestBuilderException.stackless(type.getDescription(), null, type)
+                : new RequestBuilderException(type.getDescription(), type);
+        return exception.withUri(request.getUrl());
+    }
+
+    /**
+     * Crea la excepción de respuesta que supera el tamaño máximo configurado con {@code setMaxBodySize}. No hay
+     * código HTTP porque el cuerpo se descartó a medio leer.
+     */
+    private RequestBuilderException responseTooLarge(RequestEntity<?> request, RestClientException e) {
+        RequestBuilderException.BuildErrorType type = RequestBuilderException.BuildErrorType.RESPONSE_TOO_LARGE;
+        RequestBuilderException exception = lightweightExceptions
+                ? RequestBuilderException.stackless(type.getDescription(), e, type)
+                : new RequestBuilderException(type.getDescription(), e, type);
+        return exception.withUri(request.getUrl()).withAttempt(1);
+    }
+
+    /**
+     * Crea la excepción de solicitud fallida con la uri y el código HTTP (de haber respuesta) como campos, sin traza
+     * de pila si está activo el modo de excepciones livianas.
+     */
+    private RequestBuilderException requestFailed(RequestEntity<?> request, RestClientException e) {
+        RequestBuilderException.BuildErrorType type = RequestBuilderException.BuildErrorType.REQUEST_FAILED;
+        RequestBuilderException exception = lightweightExceptions
+                ? RequestBuilderException.stackless(type.getDescription(), e, type)
+                : new RequestBuilderException(type.getDescription(), e, type);
+        exception.withUri(request.getUrl()).withAttempt(1);
+        if (e instanceof RestClientResponseException)
+            exception.withStatusCode(((RestClientResponseException) e).getRawStatusCode());
+        return exception;
     }
 
 //   ************************** GETTERS AND SETTERS:
@@ -324,35 +577,55 @@ public class RequestBuilder {
         return this;
     }
 
+    /**
+     * @return Los headers por defecto, de sólo lectura.
+     */
     public HttpHeaders getDefaultHeaders() {
         return headers;
     }
 
+    /**
+     * Reemplaza los headers por defecto por una copia de sólo lectura de los indicados. Las solicitudes ya iniciadas
+     * conservan los anteriores.
+     *
+     * @param headers Headers por defecto.
+     * @return La propia instancia.
+     */
     public RequestBuilder setDefaultHeaders(HttpHeaders headers) {
-        this.headers = headers;
+        this.headers = readOnlyCopy(headers);
         return this;
     }
 
     public RequestBuilder addDefaultHeader(String headerName, String headerValue) {
-        if (headers == null)
-            headers = new HttpHeaders();
-        headers.add(headerName, headerValue);
+        HttpHeaders copy = mutableCopy(headers);
+        copy.add(headerName, headerValue);
+        this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
         return this;
     }
 
+    /**
+     * @return Los parámetros por defecto, de sólo lectura.
+     */
     public MultiValueMap<String, String> getDefaultParams() {
         return params;
     }
 
+    /**
+     * Reemplaza los parámetros por defecto por una copia de sólo lectura de los indicados. Las solicitudes ya
+     * iniciadas conservan los anteriores.
+     *
+     * @param params Parámetros por defecto.
+     * @return La propia instancia.
+     */
     public RequestBuilder setDefaultParams(MultiValueMap<String, String> params) {
-        this.params = params;
+        this.params = readOnlyCopy(params);
         return this;
     }
 
     public RequestBuilder addDefaultParam(String paramName, String paramValue) {
-        if (params == null)
-            params = new LinkedMultiValueMap<>();
-        params.add(paramName, paramValue);
+        MultiValueMap<String, String> copy = mutableCopy(params);
+        copy.add(paramName, paramValue);
+        this.params = CollectionUtils.unmodifiableMultiValueMap(copy);
         return this;
     }
 
@@ -363,4 +636,173 @@ public class RequestBuilder {
     public String getErrorHeader() {
         return errorHeader;
     }
+
+    public boolean isLightweightExceptions() {
+        return lightweightExceptions;
+    }
+
+    /**
+     * Activa el modo de excepciones livianas: las fallas de solicitud se reportan con excepciones sin traza de pila y
+     * los errores sin datos propios (como {@code NO_REQUEST_BUILT}) con instancias preasignadas. Útil cuando un backend
+     * falla a alto volumen y la creación de excepciones se vuelve costosa.
+     *
+     * @param lightweightExceptions Si se activa o no.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setLightweightExceptions(boolean lightweightExceptions) {
+        this.lightweightExceptions = lightweightExceptions;
+        return this;
+    }
+
+    /**
+     * @return Si el último {@code warmUp(...)} terminó con éxito. Pensado para los chequeos de disponibilidad.
+     */
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Ejecutor usado por {@code performAsync()}. Debe tolerar tareas bloqueantes.
+     *
+     * @param executor El ejecutor, {@code null} para ejecutar en el hilo llamador.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Configura como ejecutor uno que lanza un hilo virtual por solicitud. Requiere JDK 21 o superior.
+     *
+     * @return La propia instancia.
+     * @throws UnsupportedOperationException Si la JVM no soporta hilos virtuales.
+     */
+    public RequestBuilder useVirtualThreads() {
+        this.executor = VirtualThreads.newExecutor();
+        return this;
+    }
+
+    public long getSpillThreshold() {
+        return bodyConverter.getSpillThreshold();
+    }
+
+    /**
+     * Tamaño por encima del cual los cuerpos de respuesta se vuelcan a un archivo temporal mapeado en memoria en lugar de
+     * leerse en el heap. Por defecto 16 MB. Un umbral mayor al tamaño máximo de un arreglo (unos 2 GB) equivale a ese
+     * máximo.
+     *
+     * @param spillThreshold Umbral en bytes, 0 para volcar todo cuerpo no vacío.
+     * @throws IllegalArgumentException Si el umbral es negativo.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setSpillThreshold(long spillThreshold) {
+        bodyConverter.setSpillThreshold(spillThreshold);
+        return this;
+    }
+
+    public long getMaxBodySize() {
+        return bodyConverter.getMaxBodySize();
+    }
+
+    /**
+     * Tamaño máximo de un cuerpo de respuesta. Al superarlo se aborta la transferencia y la solicitud falla con
+     * {@code RESPONSE_TOO_LARGE}. Por defecto sin límite, salvo los 2 GB de un cuerpo volcado.
+     *
+     * @param maxBodySize Máximo en bytes.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setMaxBodySize(long maxBodySize) {
+        bodyConverter.setMaxBodySize(maxBodySize);
+        return this;
+    }
+
+    public Path getSpillDirectory() {
+        return bodyConverter.getSpillDirectory();
+    }
+
+    /**
+     * @param spillDirectory Directorio de los archivos temporales, {@code null} para el del sistema.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setSpillDirectory(Path spillDirectory) {
+        bodyConverter.setSpillDirectory(spillDirectory);
+        return this;
+    }
+
+    /**
+     * @return Copia de los interceptores registrados, en orden.
+     */
+    public List<RequestInterceptor> getInterceptors() {
+        return Collections.unmodifiableList(Arrays.asList(interceptors.clone()));
+    }
+
+    /**
+     * Reemplaza la cadena de interceptores. Se guarda como un arreglo fijo, sin interceptores las solicitudes no pasan
+     * por la cadena.
+     *
+     * @param interceptors Interceptores, en el orden en que se ejecutan.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setInterceptors(RequestInterceptor... interceptors) {
+        useInterceptors(interceptors.length == 0 ? NO_INTERCEPTORS : interceptors.clone());
+        return this;
+    }
+
+    /**
+     * Agrega un interceptor al final de la cadena.
+     *
+     * @param interceptor El interceptor.
+     * @return La propia instancia.
+     */
+    public RequestBuilder addInterceptor(RequestInterceptor interceptor) {
+        RequestInterceptor[] current = interceptors;
+        RequestInterceptor[] chain = Arrays.copyOf(current, current.length + 1);
+        chain[current.length] = interceptor;
+        useInterceptors(chain);
+        return this;
+    }
+
+    /**
+     * Guarda los interceptores y arma sus eslabones, que se reutilizan en todos los llamados.
+     */
+    private void useInterceptors(RequestInterceptor[] interceptors) {
+        this.chains = interceptors.length == 0 ? null : new InterceptorChain[]{
+                InterceptorChain.of(this, interceptors, false), InterceptorChain.of(this, interceptors, true)};
+        this.interceptors = interceptors;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Limitador de tasa aplicado a todas las solicitudes realizadas con esta instancia.
+     *
+     * @param rateLimiter El limitador, {@code null} para no limitar.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    public ConcurrencyLimiter getConcurrencyLimiter() {
+        return concurrencyLimiter;
+    }
+
+    /**
+     * Limitador adaptativo de solicitudes en vuelo por host aplicado a todas las solicitudes de esta instancia.
+     *
+     * @param concurrencyLimiter El limitador, {@code null} para no limitar.
+     * @return La propia instancia.
+     */
+    public RequestBuilder setConcurrencyLimiter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+        return this;
+    }
 }
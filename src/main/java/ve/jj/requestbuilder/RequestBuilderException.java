@@ -1,53 +1,204 @@
 package ve.jj.requestbuilder;
 
+import java.net.URI;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Excepción arrojada por la librería. Además del tipo de error ({@link BuildErrorType}) puede llevar datos
+ * estructurados de la solicitud fallida (uri, código de estado HTTP e intento), el mensaje completo sólo se arma
+ * cuando es consultado a través de {@code getMessage()}.
+ * <p>
+ * Para rutas de fallo esperadas a alto volumen se pueden usar {@code stackless(...)}, que no captura la traza, y
+ * {@code preallocated(...)}, que retorna una instancia compartida e inmutable por cada {@link BuildErrorType}.
+ */
 public class RequestBuilderException extends RuntimeException {
+    //    ********* ATTRIBUTES
+
+    private static final Map<BuildErrorType, RequestBuilderException> PREALLOCATED = new EnumMap<>(BuildErrorType.class);
+
+    static {
+        for (BuildErrorType type : BuildErrorType.values())
+            PREALLOCATED.put(type, new RequestBuilderException(type.getDescription(), null, false, false, type, true));
+    }
+
     private BuildErrorType state;
+    private URI uri; // uri de la solicitud fallida
+    private Integer statusCode; // código HTTP de la respuesta, de haberla
+    private int attempt; // número de intento, 0 si no aplica
+    private final boolean shared; // instancia preasignada, no se puede modificar
+
+    private String formattedMessage; // mensaje armado en la primera consulta
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * Crea una excepción sin traza de pila ni supresión. Su costo de creación es mínimo, por lo que está pensada para
+     * fallos esperados que ocurren con frecuencia (por ejemplo un backend caído).
+     *
+     * @param message Mensaje base, la uri y el estado se le anexan al consultar {@code getMessage()}.
+     * @param cause   Causa original, puede ser {@code null}.
+     * @param state   Tipo de error.
+     * @return La excepción.
+     */
+    public static RequestBuilderException stackless(String message, Throwable cause, BuildErrorType state) {
+        return new RequestBuilderException(message, cause, false, false, state, false);
+    }
+
+    /**
+     * Retorna la instancia preasignada del tipo de error indicado. No tiene traza, causa ni datos de la solicitud y
+     * no puede ser modificada.
+     *
+     * @param state Tipo de error.
+     * @return La instancia compartida.
+     */
+    public static RequestBuilderException preallocated(BuildErrorType state) {
+        return PREALLOCATED.get(state);
+    }
+
+//    ************************* CONSTRUCTORS
 
     public RequestBuilderException() {
         state = null;
+        shared = false;
     }
 
     public RequestBuilderException(BuildErrorType state) {
         this.state = state;
+        this.shared = false;
     }
 
     public RequestBuilderException(String message, BuildErrorType state) {
         super(message);
         this.state = state;
+        this.shared = false;
     }
 
     public RequestBuilderException(String message, Throwable cause, BuildErrorType state) {
         super(message, cause);
         this.state = state;
+        this.shared = false;
     }
 
     public RequestBuilderException(Throwable cause, BuildErrorType state) {
         super(cause);
         this.state = state;
+        this.shared = false;
     }
 
     public RequestBuilderException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace, BuildErrorType state) {
         super(message, cause, enableSuppression, writableStackTrace);
         this.state = state;
+        this.shared = false;
+    }
+
+    private RequestBuilderException(String message, Throwable cause, boolean enableSuppression, boolean writableStackTrace, BuildErrorType state, boolean shared) {
+        super(message, cause, enableSuppression, writableStackTrace);
+        this.state = state;
+        this.shared = shared;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    public RequestBuilderException withUri(URI uri) {
+        checkNotShared();
+        this.uri = uri;
+        this.formattedMessage = null;
+        return this;
     }
 
+    public RequestBuilderException withStatusCode(Integer statusCode) {
+        checkNotShared();
+        this.statusCode = statusCode;
+        this.formattedMessage = null;
+        return this;
+    }
+
+    public RequestBuilderException withAttempt(int attempt) {
+        checkNotShared();
+        this.attempt = attempt;
+        this.formattedMessage = null;
+        return this;
+    }
+
+    private void checkNotShared() {
+        if (shared)
+            throw new UnsupportedOperationException("No se puede modificar una excepción preasignada");
+    }
+
+    /**
+     * Arma el mensaje con la uri, el estado, el código HTTP y el intento sólo la primera vez que es consultado.
+     *
+     * @return El mensaje completo.
+     */
     @Override
     public String getMessage() {
-        return super.getMessage() + "\nStatus: " + state;
+        String message = formattedMessage;
+        if (message == null) {
+            StringBuilder sb = new StringBuilder();
+            sb.append(super.getMessage());
+            if (uri != null)
+                sb.append("\nURI: ").append(uri);
+            sb.append("\nStatus: ").append(state);
+            if (statusCode != null)
+                sb.append("\nHTTP: ").append(statusCode);
+            if (attempt > 0)
+                sb.append("\nIntento: ").append(attempt);
+            message = sb.toString();
+            formattedMessage = message;
+        }
+        return message;
     }
 
+//   ************************** GETTERS AND SETTERS:
+
     public BuildErrorType getState() {
         return state;
     }
 
     public void setState(BuildErrorType state) {
+        checkNotShared();
         this.state = state;
+        this.formattedMessage = null;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public boolean isPreallocated() {
+        return shared;
     }
 
     public enum BuildErrorType {
-        NO_REQUEST_BUILT,
-        REQUEST_FAILED,
-        RESPONSE_READING_FAILED,
-        ERROR_READING_FAILED
+        NO_REQUEST_BUILT("Se intenta realizar la Solicitud HTTP sin estar lista"),
+        REQUEST_FAILED("Ha ocurrido un error realizando la solicitud"),
+        RESPONSE_READING_FAILED("Ha ocurrido un error parseando la respuesta"),
+        ERROR_READING_FAILED("La respuesta no cumple con el formato de errores"),
+        RATE_LIMITED("Se excedió el límite de solicitudes configurado en el cliente"),
+        CONCURRENCY_LIMITED("Se excedió el límite adaptativo de solicitudes concurrentes al host"),
+        RESPONSE_TOO_LARGE("El cuerpo de la respuesta supera el tamaño máximo configurado"),
+        BATCH_ITEM_MISSING("La respuesta del lote no incluye el elemento solicitado");
+
+        private final String description;
+
+        BuildErrorType(String description) {
+            this.description = description;
+        }
+
+        /**
+         * @return Mensaje base usado por las excepciones de este tipo.
+         */
+        public String getDescription() {
+            return description;
+        }
     }
 }
@@ -0,0 +1,50 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Interceptor de las solicitudes de un {@link RequestBuilder}, para aspectos transversales como inyección de tokens,
+ * ids de correlación, bitácora o métricas. Recibe la solicitud ya construida y puede:
+ * <ul>
+ * <li>Reemplazarla antes de continuar, por ejemplo con headers adicionales.</li>
+ * <li>Medir, registrar o traducir el resultado de {@code chain.proceed(...)}.</li>
+ * <li>Cortar la cadena retornando una respuesta propia con {@code chain.respond(...)} o lanzando una excepción.</li>
+ * </ul>
+ * Se ejecutan en el orden en que se registraron, después del limitador de tasa y antes del limitador de concurrencia.
+ * Deben ser seguros entre hilos.
+ */
+@FunctionalInterface
+public interface RequestInterceptor {
+
+    /**
+     * @param request La solicitud construida.
+     * @param chain   El resto de la cadena.
+     * @return La respuesta, normalmente la de {@code chain.proceed(request)}.
+     * @throws RequestBuilderException Si la solicitud falla o el interceptor la rechaza.
+     */
+    ResponseWrapper intercept(RequestEntity<?> request, Chain chain) throws RequestBuilderException;
+
+    /**
+     * Resto de la cadena de un llamado. Sólo es válida durante ese llamado.
+     */
+    interface Chain {
+        /**
+         * Pasa la solicitud al siguiente interceptor, o la realiza si es el último. Puede invocarse más de una vez, por
+         * ejemplo para reintentar: cada invocación recorre todo el resto de la cadena.
+         *
+         * @param request La solicitud, la recibida o una que la reemplace.
+         * @return La respuesta.
+         * @throws RequestBuilderException Si la solicitud falla.
+         */
+        ResponseWrapper proceed(RequestEntity<?> request) throws RequestBuilderException;
+
+        /**
+         * Envuelve una respuesta propia del interceptor, para cortar la cadena sin realizar la solicitud.
+         *
+         * @param response La respuesta.
+         * @return La respuesta envuelta con la configuración del cliente.
+         */
+        ResponseWrapper respond(ResponseEntity<String> response);
+    }
+}
@@ -99,9 +99,15 @@ public class RequestWithBodyBuilder extends BodylessRequestBuilder {
         return this;
     }
 
+    @Override
+    public RequestWithBodyBuilder withoutResponseBody() {
+        super.withoutResponseBody();
+        return this;
+    }
+
     @Override
     public RequestEntity build() {
-        return new RequestEntity<>(body, headers, method, getUri());
+        return new RequestEntity<>(body, mergedHeaders(), method, getUri());
     }
 //    ********************** GETTER AND SETTER
 
@@ -0,0 +1,67 @@
+package ve.jj.requestbuilder;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * Cuerpo de una respuesta leído por {@link BodyBufferingConverter}: en memoria si es pequeño, o en un archivo temporal
+ * mapeado en memoria si supera el umbral configurado en el {@link RequestBuilder}. El archivo se borra apenas se mapea,
+ * el sistema operativo libera el espacio cuando el mapeo es recolectado.
+ * <p>
+ * Es inmutable, cada vista retornada empieza desde el inicio del cuerpo.
+ */
+public final class ResponseBody {
+    private final ByteBuffer buffer;
+    private final boolean spilled;
+
+    ResponseBody(ByteBuffer buffer, boolean spilled) {
+        this.buffer = buffer;
+        this.spilled = spilled;
+    }
+
+    /**
+     * @return Vista de sólo lectura del cuerpo, no copia los bytes.
+     */
+    public ByteBuffer asByteBuffer() {
+        return buffer.asReadOnlyBuffer();
+    }
+
+    /**
+     * @return Vista modificable del buffer interno, para leer el arreglo de un cuerpo en memoria sin copiarlo.
+     */
+    ByteBuffer buffer() {
+        return buffer.duplicate();
+    }
+
+    /**
+     * @return Un flujo sobre el cuerpo, no copia los bytes.
+     */
+    public InputStream asInputStream() {
+        return new ByteBufferInputStream(buffer.duplicate());
+    }
+
+    /**
+     * Decodifica el cuerpo completo. En cuerpos grandes crea una cadena igual de grande en el heap.
+     *
+     * @param charset Codificación del cuerpo.
+     * @return El cuerpo como cadena.
+     */
+    public String asString(Charset charset) {
+        return charset.decode(buffer.duplicate()).toString();
+    }
+
+    /**
+     * @return Tamaño en bytes.
+     */
+    public int size() {
+        return buffer.remaining();
+    }
+
+    /**
+     * @return Si el cuerpo fue volcado a disco.
+     */
+    public boolean isSpilled() {
+        return spilled;
+    }
+}
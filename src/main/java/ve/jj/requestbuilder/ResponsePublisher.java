@@ -0,0 +1,314 @@
+package ve.jj.requestbuilder;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.http.RequestEntity;
+
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+/**
+ * Adaptador Reactive Streams: convierte un {@link Publisher} de especificaciones de solicitud en un {@link Publisher}
+ * de respuestas (o de cuerpos tipados), realizando las solicitudes con un {@link RequestBuilder}.
+ * <p>
+ * Se mantienen como máximo {@code concurrency} elementos pendientes (en ejecución o esperando a ser consumidos), y nunca
+ * más que los pedidos por el suscriptor y aún no emitidos: si el suscriptor deja de pedir elementos tampoco se le piden
+ * más a la fuente. Las solicitudes se ejecutan con
+ * {@code RequestBuilder.exchangeAsync}, por lo que el cliente debe tener un ejecutor configurado para que haya
+ * concurrencia real (ver {@code RequestBuilder.setExecutor}).
+ *
+ * @param <T> Tipo de las especificaciones emitidas por la fuente, por ejemplo ids.
+ * @param <R> Tipo de los elementos emitidos.
+ */
+public class ResponsePublisher<T, R> implements Publisher<R> {
+    //    ********* ATTRIBUTES
+
+    private final RequestBuilder client;
+    private final Publisher<? extends T> source;
+    private final Function<? super T, ? extends RequestEntity<?>> toRequest; // se invoca en serie, desde onNext
+    private final Function<? super ResponseWrapper, ? extends R> mapper; // se invoca en el hilo de la solicitud
+
+    private int concurrency = 16;
+    private boolean ordered = false;
+    private String pathTemplate; // llave del limitador de tasa
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * @param client    Cliente con el que se realizan las solicitudes.
+     * @param source    Fuente de especificaciones.
+     * @param toRequest Construye la solicitud a partir de una especificación.
+     * @param <T>       Tipo de las especificaciones.
+     * @return Publisher de respuestas envueltas.
+     */
+    public static <T> ResponsePublisher<T, ResponseWrapper> responses(RequestBuilder client, Publisher<? extends T> source,
+                                                                      Function<? super T, ? extends RequestEntity<?>> toRequest) {
+        return new ResponsePublisher<>(client, source, toRequest, Function.identity());
+    }
+
+    /**
+     * @param client    Cliente con el que se realizan las solicitudes.
+     * @param source    Fuente de especificaciones.
+     * @param toRequest Construye la solicitud a partir de una especificación.
+     * @param clazz     Clase a la cual se transforma el cuerpo de cada respuesta.
+     * @param <T>       Tipo de las especificaciones.
+     * @param <R>       Tipo del cuerpo.
+     * @return Publisher de cuerpos tipados.
+     */
+    public static <T, R> ResponsePublisher<T, R> bodies(RequestBuilder client, Publisher<? extends T> source,
+                                                        Function<? super T, ? extends RequestEntity<?>> toRequest, Class<R> clazz) {
+        return new ResponsePublisher<>(client, source, toRequest, response -> response.getBody(clazz));
+    }
+
+//    ************************* CONSTRUCTORS
+
+    public ResponsePublisher(RequestBuilder client, Publisher<? extends T> source,
+                             Function<? super T, ? extends RequestEntity<?>> toRequest,
+                             Function<? super ResponseWrapper, ? extends R> mapper) {
+        this.client = client;
+        this.source = source;
+        this.toRequest = toRequest;
+        this.mapper = mapper;
+    }
+
+//    ***************** BUILDER METHODS:
+
+    /**
+     * @param concurrency Máximo de elementos pendientes a la vez, por defecto 16.
+     * @return La propia instancia.
+     */
+    public ResponsePublisher<T, R> withConcurrency(int concurrency) {
+        if (concurrency < 1)
+            throw new IllegalArgumentException("La concurrencia debe ser mayor que cero");
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    /**
+     * @param ordered Si se emiten en el orden de la fuente, por defecto se emiten según van completando.
+     * @return La propia instancia.
+     */
+    public ResponsePublisher<T, R> withOrdering(boolean ordered) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    /**
+     * @param pathTemplate Ruta plantilla común a las solicitudes, por ejemplo {@code /items/{id}}, usada como llave del
+     *                     limitador de tasa del cliente. Sin ella el limitador agrupa las solicitudes por host.
+     * @return La propia instancia.
+     */
+    public ResponsePublisher<T, R> withPathTemplate(String pathTemplate) {
+        this.pathTemplate = pathTemplate;
+        return this;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super R> subscriber) {
+        if (subscriber == null)
+            throw new NullPointerException("subscriber");
+        source.subscribe(new RequestSubscription(subscriber, concurrency, ordered));
+    }
+
+//   ************************** SUBSCRIPTION
+
+    /**
+     * Suscriptor de la fuente y suscripción entregada al suscriptor final. Las emisiones hacia el suscriptor final se
+     * serializan con el contador {@code wip}.
+     */
+    private final class RequestSubscription implements Subscriber<T>, Subscription {
+        private final Subscriber<? super R> downstream;
+        private final int concurrency;
+        private final boolean ordered;
+
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private final AtomicInteger pending = new AtomicInteger(); // recibidos de la fuente y aún no emitidos
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        private final Queue<R> completed = new ConcurrentLinkedQueue<>(); // modo sin orden
+        private final ConcurrentHashMap<Long, R> completedByIndex = new ConcurrentHashMap<>(); // modo ordenado
+
+        private Subscription upstream;
+        private long nextIndex; // sólo se usa en onNext
+        private long nextToEmit; // sólo se usa dentro de drain()
+        private long upstreamRequested; // pedidos a la fuente y aún no emitidos, sólo se usa dentro de drain()
+        private volatile boolean upstreamDone;
+        private volatile boolean cancelled;
+
+        RequestSubscription(Subscriber<? super R> downstream, int concurrency, boolean ordered) {
+            this.downstream = downstream;
+            this.concurrency = concurrency;
+            this.ordered = ordered;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.upstream = subscription;
+            downstream.onSubscribe(this);
+        }
+
+        @Override
+        public void onNext(T spec) {
+            if (cancelled || upstreamDone)
+                return;
+            long index = nextIndex++;
+            pending.incrementAndGet();
+            RequestEntity<?> request;
+            try {
+                request = toRequest.apply(spec);
+            } catch (RuntimeException e) {
+                fail(e);
+                return;
+            }
+            client.exchangeAsync(request, pathTemplate).thenApply(mapper).whenComplete((result, e) -> {
+                if (e != null) {
+                    fail(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                } else if (result == null) {
+                    fail(new NullPointerException("El mapeo de la respuesta retornó null"));
+                } else {
+                    if (ordered)
+                        completedByIndex.put(index, result);
+                    else
+                        completed.offer(result);
+                    drain();
+                }
+            });
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error.compareAndSet(null, t);
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void onComplete() {
+            upstreamDone = true;
+            drain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Se deben solicitar elementos positivos (§3.9)"));
+                return;
+            }
+            long current, next;
+            do {
+                current = requested.get();
+                if (current == Long.MAX_VALUE)
+                    break;
+                next = current + n;
+                if (next < 0)
+                    next = Long.MAX_VALUE;
+            } while (!requested.compareAndSet(current, next));
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            if (!cancelled) {
+                cancelled = true;
+                upstream.cancel();
+                drain();
+            }
+        }
+
+        private void fail(Throwable t) {
+            if (error.compareAndSet(null, t))
+                upstream.cancel();
+            drain();
+        }
+
+        private R poll() {
+            if (!ordered)
+                return completed.poll();
+            R result = completedByIndex.remove(nextToEmit);
+            if (result != null)
+                nextToEmit++;
+            return result;
+        }
+
+        private void clear() {
+            completed.clear();
+            completedByIndex.clear();
+        }
+
+        private void drain() {
+            if (wip.getAndIncrement() != 0)
+                return;
+            int missed = 1;
+            for (; ; ) {
+                long r = requested.get();
+                long emitted = 0;
+                while (emitted != r) {
+                    if (terminated())
+                        return;
+                    R result = poll();
+                    if (result == null)
+                        break;
+                    downstream.onNext(result);
+                    emitted++;
+                    upstreamRequested--;
+                    pending.decrementAndGet();
+                }
+                if (terminated())
+                    return;
+                if (emitted != 0 && r != Long.MAX_VALUE)
+                    r = requested.addAndGet(-emitted);
+                requestUpstream(r);
+                missed = wip.addAndGet(-missed);
+                if (missed == 0)
+                    break;
+            }
+        }
+
+        /**
+         * Le pide a la fuente lo necesario para tener {@code min(concurrency, demanda)} elementos pedidos y no emitidos.
+         * La fuente puede emitir dentro de este llamado, las emisiones resultantes se atienden en la siguiente vuelta de
+         * {@code drain()}.
+         */
+        private void requestUpstream(long demand) {
+            if (upstreamDone)
+                return;
+            long target = Math.min(concurrency, demand);
+            if (upstreamRequested < target) {
+                long n = target - upstreamRequested;
+                upstreamRequested = target;
+                upstream.request(n);
+            }
+        }
+
+        /**
+         * Verifica cancelación, error o fin de la fuente sin elementos pendientes, y emite la señal terminal si aplica.
+         */
+        private boolean terminated() {
+            if (cancelled) {
+                clear();
+                return true;
+            }
+            Throwable e = error.get();
+            if (e != null) {
+                cancelled = true;
+                clear();
+                downstream.onError(e);
+                return true;
+            }
+            if (upstreamDone && pending.get() == 0) {
+                cancelled = true;
+                downstream.onComplete();
+                return true;
+            }
+            return false;
+        }
+    }
+}
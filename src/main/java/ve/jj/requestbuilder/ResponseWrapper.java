@@ -2,11 +2,18 @@ package ve.jj.requestbuilder;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -14,22 +21,96 @@ import java.util.List;
  * convicciones de resilencia pautadas en la empresa.
  * <p>
  * Esta clase no se debe instanciar directamente, es obtenida a través de la realización de solicitudes con {@link RequestBuilder}.
+ * <p>
+ * El cuerpo se guarda en bytes tal como llegó y sólo se procesa al pedirlo: {@code getBody}, {@code getError} y
+ * {@code extractEntity} lo parsean directo de los bytes, y la cadena de {@code getResponse()} se decodifica la primera
+ * vez que se pide. Verificar {@code hasError()} o leer {@code getHeaders()} no toca el cuerpo.
  */
 public class ResponseWrapper {
-    private ResponseEntity<String> response;
+    /**
+     * Mapper compartido por todas las respuestas: es seguro entre hilos y conserva en caché los deserializadores ya
+     * construidos, así sólo el primer uso de cada tipo paga su construcción.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private ResponseEntity<String> response; // en respuestas leídas como ResponseBody se crea al pedirla
+    private ResponseEntity<ResponseBody> buffered; // null si se envolvió directamente un ResponseEntity<String>
+    private boolean bodyDiscarded; // el cuerpo se descartó sin leerlo
     private String errorHeader;
     private ObjectMapper mapper;
+    private boolean lightweightExceptions;
 
     /**
      * @param response    {@link ResponseEntity} que será envuelto.
      * @param errorHeader Header que contendrá la bandera de error para la verificación.
      */
     ResponseWrapper(ResponseEntity<String> response, String errorHeader) {
+        this(response, errorHeader, false);
+    }
+
+    /**
+     * @param response              {@link ResponseEntity} que será envuelto.
+     * @param errorHeader           Header que contendrá la bandera de error para la verificación.
+     * @param lightweightExceptions Si los errores de lectura se reportan con excepciones sin traza de pila.
+     */
+    ResponseWrapper(ResponseEntity<String> response, String errorHeader, boolean lightweightExceptions) {
+        this(response, null, errorHeader, lightweightExceptions);
+    }
+
+    private ResponseWrapper(ResponseEntity<String> response, ResponseEntity<ResponseBody> buffered, String errorHeader,
+                            boolean lightweightExceptions) {
         this.response = response;
+        this.buffered = buffered;
         this.errorHeader = errorHeader;
-        this.mapper = new ObjectMapper()
-                .configure(DeserializationFeature.ACCEPT_EMPTY_ARRAY_AS_NULL_OBJECT, true)
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.lightweightExceptions = lightweightExceptions;
+        this.mapper = MAPPER;
+    }
+
+    /**
+     * @param buffered              Respuesta con el cuerpo en memoria o volcado a disco.
+     * @param errorHeader           Header que contendrá la bandera de error para la verificación.
+     * @param lightweightExceptions Si los errores de lectura se reportan con excepciones sin traza de pila.
+     * @return La respuesta envuelta.
+     */
+    static ResponseWrapper buffered(ResponseEntity<ResponseBody> buffered, String errorHeader, boolean lightweightExceptions) {
+        return new ResponseWrapper(null, buffered, errorHeader, lightweightExceptions);
+    }
+
+    /**
+     * @param discarded             Respuesta cuyo cuerpo se descartó sin leerlo.
+     * @param errorHeader           Header que contendrá la bandera de error para la verificación.
+     * @param lightweightExceptions Si los errores de lectura se reportan con excepciones sin traza de pila.
+     * @return La respuesta envuelta, sin cuerpo.
+     */
+    static ResponseWrapper discarded(ResponseEntity<?> discarded, String errorHeader, boolean lightweightExceptions) {
+        ResponseWrapper wrapper = new ResponseWrapper(null,
+                new ResponseEntity<ResponseBody>(discarded.getHeaders(), discarded.getStatusCode()), errorHeader,
+                lightweightExceptions);
+        wrapper.bodyDiscarded = true;
+        return wrapper;
+    }
+
+    /**
+     * Construye y deja en caché el deserializador de un tipo de respuesta, para que la primera lectura no pague su
+     * construcción. Usado por {@link WarmUp}.
+     *
+     * @param type {@link Class} o {@link TypeReference} del cuerpo.
+     * @return Si se pudo construir el deserializador.
+     */
+    static boolean prime(Object type) {
+        try {
+            if (type instanceof Class)
+                MAPPER.readerFor((Class<?>) type);
+            else if (type instanceof TypeReference)
+                MAPPER.readerFor((TypeReference<?>) type);
+            else
+                return false;
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 
     /**
@@ -39,10 +120,11 @@ public class ResponseWrapper {
      * @return Si contiene o no error.
      */
     public Boolean hasError() {
-        if (response.getStatusCodeValue() >= 300) {
+        int status = buffered != null ? buffered.getStatusCodeValue() : response.getStatusCodeValue();
+        if (status >= 300) {
             return true;
         }
-        HttpHeaders headers = response.getHeaders();
+        HttpHeaders headers = getHeaders();
         if (headers.containsKey(errorHeader)) {
             List<String> val = headers.get(errorHeader);
             if (val.size() > 0)
@@ -51,10 +133,76 @@ public class ResponseWrapper {
         return false;
     }
 
+    /**
+     * Obtiene la respuesta con el cuerpo como cadena. Si el cuerpo fue volcado a disco se decodifica completo en el
+     * heap, para cuerpos grandes se debe preferir {@code getBodyStream()} o {@code getBodyBuffer()}.
+     *
+     * @return La respuesta.
+     */
     public ResponseEntity<String> getResponse() {
+        if (response == null) {
+            ResponseBody body = buffered.getBody();
+            response = new ResponseEntity<>(body != null ? body.asString(charset()) : null, buffered.getHeaders(),
+                    buffered.getStatusCode());
+        }
         return response;
     }
 
+    /**
+     * @return Vista de sólo lectura del cuerpo, mapeada en memoria si fue volcado a disco, o {@code null} si no tiene.
+     */
+    public ByteBuffer getBodyBuffer() {
+        if (buffered == null)
+            return response.getBody() != null ? ByteBuffer.wrap(response.getBody().getBytes(charset())).asReadOnlyBuffer() : null;
+        return buffered.getBody() != null ? buffered.getBody().asByteBuffer() : null;
+    }
+
+    /**
+     * @return Flujo sobre el cuerpo, sin copiarlo, o {@code null} si no tiene.
+     */
+    public InputStream getBodyStream() {
+        ByteBuffer body = getBodyBuffer();
+        return body != null ? new ByteBufferInputStream(body) : null;
+    }
+
+    /**
+     * @return Si el cuerpo se descartó sin leerlo, por ser {@code HEAD} o pedirse {@code withoutResponseBody()}.
+     */
+    public boolean isBodyDiscarded() {
+        return bodyDiscarded;
+    }
+
+    /**
+     * @return Si el cuerpo superó el umbral de volcado y está en un archivo temporal mapeado en memoria.
+     */
+    public boolean isSpilled() {
+        return buffered != null && buffered.getBody() != null && buffered.getBody().isSpilled();
+    }
+
+    private Charset charset() {
+        MediaType contentType = getHeaders().getContentType();
+        return contentType != null && contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+    }
+
+    /**
+     * Parsea el cuerpo sin crear la cadena: de los bytes si está en Unicode (Jackson detecta UTF-8, 16 y 32), o con
+     * un lector si se declaró otra codificación.
+     */
+    private <T> T readBody(JavaType type) throws IOException {
+        if (buffered == null)
+            return mapper.readValue(response.getBody(), type);
+        ResponseBody body = buffered.getBody();
+        if (body == null)
+            throw new IOException(bodyDiscarded ? "El cuerpo de la respuesta fue descartado" : "La respuesta no tiene cuerpo");
+        Charset charset = charset();
+        if (!charset.name().startsWith("UTF-"))
+            return mapper.readValue(new InputStreamReader(body.asInputStream(), charset), type);
+        ByteBuffer bytes = body.buffer();
+        if (bytes.hasArray())
+            return mapper.readValue(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining(), type);
+        return mapper.readValue(body.asInputStream(), type);
+    }
+
     /**
      * Obtiene el cuerpo de la respuesta en forma de {@link Class} indicado.
      *
@@ -65,13 +213,9 @@ public class ResponseWrapper {
      */
     public <T> T getBody(Class<T> clazz) throws RequestBuilderException {
         try {
-            return mapper.readValue(response.getBody(), clazz);
+            return readBody(mapper.constructType(clazz));
         } catch (IOException e) {
-            throw new RequestBuilderException(
-                    "Ha ocurrido un error parseando la respuesta",
-                    e,
-                    RequestBuilderException.BuildErrorType.RESPONSE_READING_FAILED
-            );
+            throw readingFailed(e, RequestBuilderException.BuildErrorType.RESPONSE_READING_FAILED);
         }
     }
 
@@ -85,13 +229,9 @@ public class ResponseWrapper {
      */
     public <T> T getBody(TypeReference<T> typeReference) throws RequestBuilderException {
         try {
-            return mapper.readValue(response.getBody(), typeReference);
+            return readBody(mapper.getTypeFactory().constructType(typeReference));
         } catch (IOException e) {
-            throw new RequestBuilderException(
-                    "Ha ocurrido un error parseando la respuesta",
-                    e,
-                    RequestBuilderException.BuildErrorType.RESPONSE_READING_FAILED
-            );
+            throw readingFailed(e, RequestBuilderException.BuildErrorType.RESPONSE_READING_FAILED);
         }
     }
 
@@ -113,7 +253,7 @@ public class ResponseWrapper {
     }
 
     public HttpHeaders getHeaders() {
-        return response.getHeaders();
+        return buffered != null ? buffered.getHeaders() : response.getHeaders();
     }
 
     /**
@@ -124,13 +264,18 @@ public class ResponseWrapper {
      */
     public ResponseErrorEnum getError() throws RequestBuilderException {
         try {
-            return mapper.readValue(response.getBody(), ResponseErrorEnum.class);
+            return readBody(mapper.constructType(ResponseErrorEnum.class));
         } catch (IOException e) {
-            throw new RequestBuilderException(
-                    "La respuesta no cumple con el formato de errores",
-                    e,
-                    RequestBuilderException.BuildErrorType.ERROR_READING_FAILED
-            );
+            throw readingFailed(e, RequestBuilderException.BuildErrorType.ERROR_READING_FAILED);
         }
     }
+
+    /**
+     * Crea la excepción de lectura fallida, sin traza de pila si está activo el modo de excepciones livianas.
+     */
+    private RequestBuilderException readingFailed(IOException e, RequestBuilderException.BuildErrorType type) {
+        if (lightweightExceptions)
+            return RequestBuilderException.stackless(type.getDescription(), e, type);
+        return new RequestBuilderException(type.getDescription(), e, type);
+    }
 }
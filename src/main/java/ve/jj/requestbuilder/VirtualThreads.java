@@ -0,0 +1,30 @@
+package ve.jj.requestbuilder;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Acceso a hilos virtuales. Esta es la versión para JDK 8 a 20, donde no están disponibles; el jar es multi-release y
+ * en JDK 21 o superior se carga la versión de {@code src/main/java21}.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return Si la JVM en ejecución soporta hilos virtuales.
+     */
+    public static boolean isSupported() {
+        return false;
+    }
+
+    /**
+     * Crea un ejecutor que lanza un hilo virtual por tarea.
+     *
+     * @return El ejecutor.
+     * @throws UnsupportedOperationException Siempre en esta versión, se requiere JDK 21 o superior.
+     */
+    public static ExecutorService newExecutor() {
+        throw new UnsupportedOperationException("Los hilos virtuales requieren JDK 21 o superior");
+    }
+}
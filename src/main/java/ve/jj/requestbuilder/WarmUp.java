@@ -0,0 +1,191 @@
+package ve.jj.requestbuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.RequestEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Configuración del calentamiento de un {@link RequestBuilder} al iniciar la aplicación, para evitar el pico de
+ * latencia de los primeros llamados:
+ * <ol>
+ * <li>Resuelve el DNS de los hosts (el por defecto del cliente y los agregados).</li>
+ * <li>Abre {@code connectionsPerHost} conexiones por host con solicitudes concurrentes livianas (por defecto
+ * {@code HEAD} a la ruta base), que quedan en el pool del transporte. Una respuesta HTTP de error también cuenta, lo
+ * importante es la conexión.</li>
+ * <li>Prepara los deserializadores de los tipos de respuesta registrados.</li>
+ * </ol>
+ * Se ejecuta con {@code RequestBuilder.warmUp(...)}, y {@code RequestBuilder.isWarm()} indica si terminó con éxito,
+ * para ser usado en los chequeos de disponibilidad (readiness).
+ * <p>
+ * Con el transporte por defecto la JVM conserva como máximo {@code http.maxConnections} (5 por defecto) conexiones
+ * ociosas por destino.
+ */
+public class WarmUp {
+    //    ********* ATTRIBUTES
+
+    private final List<String> hosts = new ArrayList<>();
+    private final List<Object> responseTypes = new ArrayList<>();
+    private DnsCache dnsCache;
+    private int connectionsPerHost = 1;
+    private HttpMethod method = HttpMethod.HEAD;
+    private String path;
+    private String scheme = "http";
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(10);
+
+//    ***************** BUILDER METHODS:
+
+    /**
+     * @param hosts Hosts a calentar además del host por defecto del cliente.
+     * @return La propia instancia.
+     */
+    public WarmUp withHosts(String... hosts) {
+        this.hosts.addAll(Arrays.asList(hosts));
+        return this;
+    }
+
+    /**
+     * @param dnsCache Caché donde guardar las resoluciones, por ejemplo la misma usada por {@link Http2Transport}. Si
+     *                 no se indica sólo se calienta el caché de la JVM.
+     * @return La propia instancia.
+     */
+    public WarmUp withDnsCache(DnsCache dnsCache) {
+        this.dnsCache = dnsCache;
+        return this;
+    }
+
+    public WarmUp withConnectionsPerHost(int connectionsPerHost) {
+        this.connectionsPerHost = connectionsPerHost;
+        return this;
+    }
+
+    /**
+     * @param method Método de las solicitudes de calentamiento, por defecto {@code HEAD}.
+     * @param path   Ruta, por defecto la ruta base del cliente.
+     * @return La propia instancia.
+     */
+    public WarmUp withRequest(HttpMethod method, String path) {
+        this.method = method;
+        this.path = path;
+        return this;
+    }
+
+    public WarmUp withScheme(String scheme) {
+        this.scheme = scheme;
+        return this;
+    }
+
+    public WarmUp withTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = unit.toMillis(timeout);
+        return this;
+    }
+
+    /**
+     * @param types Clases o {@link TypeReference} de los cuerpos que se leerán con {@link ResponseWrapper}.
+     * @return La propia instancia.
+     */
+    public WarmUp withResponseTypes(Object... types) {
+        this.responseTypes.addAll(Arrays.asList(types));
+        return this;
+    }
+
+//    ***************** WARM UP
+
+    /**
+     * Ejecuta el calentamiento.
+     *
+     * @param client Cliente a calentar.
+     * @return Si todos los pasos terminaron con éxito.
+     */
+    boolean run(RequestBuilder client) {
+        List<String> targets = new ArrayList<>(hosts);
+        if (client.getDefaultHost() != null && !targets.contains(client.getDefaultHost()))
+            targets.add(0, client.getDefaultHost());
+
+        boolean success = true;
+        for (String host : targets) {
+            try {
+                if (dnsCache != null)
+                    dnsCache.resolve(host);
+                else
+                    InetAddress.getAllByName(host);
+            } catch (UnknownHostException e) {
+                success = false;
+            }
+        }
+
+        for (String host : targets)
+            success &= openConnections(client, uriFor(client, host));
+
+        for (Object type : responseTypes)
+            success &= ResponseWrapper.prime(type);
+
+        return success;
+    }
+
+    private URI uriFor(RequestBuilder client, String host) {
+        UriComponentsBuilder builder = UriComponentsBuilder.newInstance().scheme(scheme).host(host);
+        if (client.getDefaultPortString() != null)
+            builder.port(client.getDefaultPortString());
+        else if (client.getDefaultPortInteger() != null)
+            builder.port(client.getDefaultPortInteger());
+        String target = path != null ? path : client.getDefaultBasePath();
+        return builder.path(target != null ? target : "/").build().encode().toUri();
+    }
+
+    /**
+     * Realiza {@code connectionsPerHost} solicitudes simultáneas para que el transporte abra ese número de conexiones.
+     */
+    private boolean openConnections(RequestBuilder client, URI uri) {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(connectionsPerHost);
+        AtomicInteger failures = new AtomicInteger();
+        RequestEntity<Void> request = new RequestEntity<>(method, uri);
+        for (int i = 0; i < connectionsPerHost; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    client.getRestTemplate().exchange(request, String.class);
+                } catch (RestClientResponseException e) {
+                    // hubo conexión y respuesta, sirve para calentar
+                } catch (RestClientException | InterruptedException e) {
+                    failures.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            }, "request-builder-warm-up");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        start.countDown();
+        try {
+            return done.await(timeoutMillis, TimeUnit.MILLISECONDS) && failures.get() == 0;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+//   ************************** GETTERS AND SETTERS:
+
+    public List<String> getHosts() {
+        return Collections.unmodifiableList(hosts);
+    }
+
+    public int getConnectionsPerHost() {
+        return connectionsPerHost;
+    }
+}
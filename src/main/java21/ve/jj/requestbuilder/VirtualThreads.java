@@ -0,0 +1,32 @@
+package ve.jj.requestbuilder;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Acceso a hilos virtuales. Versión para JDK 21 o superior, empaquetada en {@code META-INF/versions/21}.
+ * <p>
+ * La librería no usa bloques {@code synchronized} en la ruta de ejecución, por lo que las llamadas bloqueantes a
+ * {@code perform()} no fijan (pin) el hilo virtual a su hilo portador.
+ */
+public final class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return Si la JVM en ejecución soporta hilos virtuales.
+     */
+    public static boolean isSupported() {
+        return true;
+    }
+
+    /**
+     * Crea un ejecutor que lanza un hilo virtual por tarea.
+     *
+     * @return El ejecutor.
+     */
+    public static ExecutorService newExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-builder-", 0).factory());
+    }
+}
@@ -0,0 +1,186 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Bordes del umbral de volcado y del tamaño máximo, con y sin {@code Content-Length}.
+ */
+public class BodyBufferingConverterTest {
+
+    private static final int THRESHOLD = 64 * 1024;
+
+    private BodyBufferingConverter converter;
+
+    @Before
+    public void setUp() {
+        converter = new BodyBufferingConverter();
+        converter.setSpillThreshold(THRESHOLD);
+    }
+
+    @Test
+    public void exactThresholdStaysInMemory() throws IOException {
+        for (boolean withLength : new boolean[]{true, false}) {
+            ResponseBody body = read(message(body(THRESHOLD), withLength));
+            assertFalse(body.isSpilled());
+            assertBody(body(THRESHOLD), body);
+        }
+    }
+
+    @Test
+    public void thresholdPlusOneSpillsWithLastByteIntact() throws IOException {
+        for (boolean withLength : new boolean[]{true, false}) {
+            ResponseBody body = read(message(body(THRESHOLD + 1), withLength));
+            assertTrue(body.isSpilled());
+            assertBody(body(THRESHOLD + 1), body);
+        }
+    }
+
+    @Test
+    public void exactMaxIsAccepted() throws IOException {
+        converter.setMaxBodySize(THRESHOLD * 2);
+        for (boolean withLength : new boolean[]{true, false}) {
+            ResponseBody body = read(message(body(THRESHOLD * 2), withLength));
+            assertEquals(THRESHOLD * 2, body.size());
+        }
+    }
+
+    @Test
+    public void maxPlusOneIsTooLargeAndClosesStream() throws IOException {
+        for (long max : new long[]{THRESHOLD / 2, THRESHOLD * 2}) { // en memoria y volcado
+            converter.setMaxBodySize(max);
+            for (boolean withLength : new boolean[]{true, false}) {
+                Message message = message(body((int) max + 1), withLength);
+                try {
+                    read(message);
+                    fail("se esperaba TooLargeException con máximo " + max);
+                } catch (BodyBufferingConverter.TooLargeException e) {
+                    assertTrue(message.closed);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void emptyBodyStaysInMemory() throws IOException {
+        for (long threshold : new long[]{THRESHOLD, 0}) {
+            converter.setSpillThreshold(threshold);
+            for (boolean withLength : new boolean[]{true, false}) {
+                ResponseBody body = read(message(new byte[0], withLength));
+                assertFalse(body.isSpilled());
+                assertEquals(0, body.size());
+            }
+        }
+    }
+
+    @Test
+    public void zeroThresholdSpillsAnyByte() throws IOException {
+        converter.setSpillThreshold(0);
+        for (boolean withLength : new boolean[]{true, false}) {
+            ResponseBody body = read(message(new byte[]{7}, withLength));
+            assertTrue(body.isSpilled());
+            assertBody(new byte[]{7}, body);
+        }
+    }
+
+    @Test
+    public void thresholdBeyondArrayLimitKeepsGrowingInMemory() throws IOException {
+        converter.setSpillThreshold(Long.MAX_VALUE);
+        ResponseBody body = read(message(body(THRESHOLD * 4), false));
+        assertFalse(body.isSpilled());
+        assertBody(body(THRESHOLD * 4), body);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeThresholdIsRejected() {
+        converter.setSpillThreshold(-1);
+    }
+
+    /**
+     * Con {@code Content-Length} el arreglo se reserva del tamaño exacto y no se copia para crecer ni recortar.
+     */
+    @Test
+    public void contentLengthAllocatesOnlyTheBody() throws IOException {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemoryEnabled());
+        converter.setSpillThreshold(16L * 1024 * 1024);
+        byte[] data = body(1024 * 1024);
+        for (int i = 0; i < 5; i++)
+            read(message(data, true));
+
+        Message message = message(data, true);
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        ResponseBody body = read(message);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertFalse(body.isSpilled());
+        assertTrue("asignados " + allocated + " B", allocated < data.length + 16 * 1024);
+    }
+
+    private ResponseBody read(HttpInputMessage message) throws IOException {
+        return (ResponseBody) converter.read(ResponseBody.class, message);
+    }
+
+    private static byte[] body(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++)
+            data[i] = (byte) (i * 31 + 1);
+        return data;
+    }
+
+    private static void assertBody(byte[] expected, ResponseBody body) {
+        assertEquals(expected.length, body.size());
+        ByteBuffer buffer = body.asByteBuffer();
+        byte[] actual = new byte[buffer.remaining()];
+        buffer.get(actual);
+        assertArrayEquals(expected, actual);
+    }
+
+    private static Message message(byte[] data, boolean withLength) {
+        return new Message(data, withLength);
+    }
+
+    private static final class Message implements HttpInputMessage {
+        private final HttpHeaders headers = new HttpHeaders();
+        private final InputStream body;
+        private boolean closed;
+
+        Message(byte[] data, boolean withLength) {
+            if (withLength)
+                headers.setContentLength(data.length);
+            body = new ByteArrayInputStream(data) {
+                @Override
+                public void close() {
+                    closed = true;
+                }
+            };
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reglas del AIMD con muestras directas, un AIMD de punta a punta contra {@link StubServer}, y simulación en tiempo
+ * virtual del limitador por gradiente frente a un backend local: {@code demand} usuarios envían
+ * solicitudes en ciclo cerrado (un rechazo se reintenta tras la latencia base) y el backend responde en
+ * {@code base * max(1, enCurso / capacidad)}, es decir, la latencia crece en proporción a la carga una vez superada
+ * su capacidad real.
+ */
+public class ConcurrencyLimiterTest {
+
+    private static final String HOST = "backend";
+    private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void constantLatencyGrowsLimitToDemand() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.gradient(20, 1, 1000);
+        Simulation simulation = new Simulation(limiter, 200, Integer.MAX_VALUE).run(80_000);
+
+        assertTrue("límite " + limiter.getLimit(HOST), limiter.getLimit(HOST) >= 200);
+        // sólo se rechaza mientras el límite crece desde el inicial, ya estable no se rechaza nada
+        assertTrue("rechazadas " + simulation.rejected, simulation.rejected < 5_000);
+        assertEquals(0, simulation.measuredRejected);
+    }
+
+    @Test
+    public void loadDependentLatencyConvergesNearCapacity() {
+        int capacity = 50;
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.gradient(20, 1, 1000).withRttTolerance(1.0);
+        Simulation simulation = new Simulation(limiter, 200, capacity).run(200_000);
+
+        double limit = simulation.averageLimit();
+        assertTrue("límite promedio " + limit, limit >= capacity && limit <= capacity * 1.5);
+        // con el límite cerca de la capacidad casi todo lo admitido se atiende sin cola
+        assertTrue("RTT promedio " + simulation.averageRtt(), simulation.averageRtt() <= BASE_RTT * 1.5);
+    }
+
+    @Test
+    public void rttToleranceAllowsProportionalQueueing() {
+        int capacity = 50;
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.gradient(20, 1, 1000);
+        Simulation simulation = new Simulation(limiter, 400, capacity).run(200_000);
+
+        // se admite hasta rttTolerance veces el RTT mínimo, es decir, el doble de la capacidad en curso
+        double limit = simulation.averageLimit();
+        assertTrue("límite promedio " + limit, limit >= capacity * 2 && limit <= capacity * 2.5);
+    }
+
+    @Test
+    public void minRttProbeRestoresLimit() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.gradient(20, 1, 1000).withMinRttWindow(500);
+        Simulation simulation = new Simulation(limiter, 200, Integer.MAX_VALUE).run(80_000);
+
+        // las mediciones del mínimo no deben dejar el límite por debajo de la demanda al terminar
+        assertTrue("límite " + limiter.getLimit(HOST), limiter.getLimit(HOST) >= 200);
+        assertTrue("rechazadas " + simulation.measuredRejected, simulation.measuredRejected < 40_000 / 100);
+    }
+
+    @Test
+    public void aimdGrowsByOnePerWindowWhileUsed() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(10, 1, 100, 100);
+        ConcurrencyLimiter.HostLimit limit = null;
+        for (int i = 0; i < 10; i++)
+            limit = limiter.tryAcquire(HOST);
+        // con el límite lleno cada respuesta suma 1 / límite: 100 respuestas llevan el límite de 10 a sqrt(10² + 200)
+        for (int i = 0; i < 100; i++) {
+            limiter.release(limit, System.nanoTime(), false);
+            limiter.tryAcquire(HOST);
+        }
+        assertEquals(17, limiter.getLimit(HOST));
+    }
+
+    @Test
+    public void aimdDoesNotGrowWhileUnderused() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(10, 1, 100, 100);
+        for (int i = 0; i < 100; i++)
+            limiter.release(limiter.tryAcquire(HOST), System.nanoTime(), false);
+        assertEquals(10, limiter.getLimit(HOST));
+    }
+
+    @Test
+    public void aimdBacksOffOnDropOncePerRtt() {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(20, 1, 100, 100).withBackoffRatio(0.5);
+        limiter.release(limiter.tryAcquire(HOST), System.nanoTime(), true);
+        assertEquals(10, limiter.getLimit(HOST));
+        // la siguiente caída llega antes de que pase un RTT desde la reducción: refleja la misma congestión
+        limiter.release(limiter.tryAcquire(HOST), System.nanoTime() - TimeUnit.SECONDS.toNanos(1), true);
+        assertEquals(10, limiter.getLimit(HOST));
+    }
+
+    @Test
+    public void aimdBacksOffOnSlowResponse() throws InterruptedException {
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(20, 1, 100, 10).withBackoffRatio(0.5);
+        ConcurrencyLimiter.HostLimit limit = limiter.tryAcquire(HOST);
+        long start = System.nanoTime();
+        Thread.sleep(20);
+        limiter.release(limit, start, false);
+        assertEquals(10, limiter.getLimit(HOST));
+
+        limiter.release(limiter.tryAcquire(HOST), System.nanoTime(), false);
+        assertEquals(10, limiter.getLimit(HOST));
+    }
+
+    @Test
+    public void aimdKeepsSaturatingServerNearCapacity() throws Exception {
+        int capacity = 8;
+        // 5 ms hasta 8 en curso y 5 ms más por cada una adicional: el umbral de 25 ms admite hasta 12
+        LatencyDistribution latency = LatencyDistribution.loadDependent(LatencyDistribution.fixed(5), capacity, 5);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        ConcurrencyLimiter limiter = ConcurrencyLimiter.aimd(40, 1, 100, 25);
+        try (StubServer server = StubServer.start(0, 4, StubServer.fixed(200, "application/json", body), latency)) {
+            RequestBuilder client = new RequestBuilder("127.0.0.1", null, server.getPort(), null, null);
+            client.setConcurrencyLimiter(limiter);
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            long measureFrom = end - TimeUnit.SECONDS.toNanos(1);
+            AtomicLong served = new AtomicLong();
+            AtomicLong limitSum = new AtomicLong();
+            AtomicLong samples = new AtomicLong();
+            List<Thread> users = new ArrayList<>();
+            for (int i = 0; i < 40; i++)
+                users.add(new Thread(() -> {
+                    while (System.nanoTime() < end) {
+                        try {
+                            client.get().perform();
+                            served.incrementAndGet();
+                            if (System.nanoTime() > measureFrom) {
+                                limitSum.addAndGet(limiter.getLimit("127.0.0.1"));
+                                samples.incrementAndGet();
+                            }
+                        } catch (RequestBuilderException e) {
+                            assertEquals(RequestBuilderException.BuildErrorType.CONCURRENCY_LIMITED, e.getState());
+                            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+                        }
+                    }
+                }));
+            for (Thread user : users)
+                user.start();
+            for (Thread user : users)
+                user.join();
+
+            double limit = limitSum.get() / (double) samples.get();
+            assertTrue("límite promedio " + limit, limit >= capacity / 2.0 && limit <= capacity * 2);
+            assertTrue("rechazadas " + limiter.getRejectedCount(), limiter.getRejectedCount() > 0);
+            assertTrue("atendidas " + served.get(), served.get() > 100);
+        }
+    }
+
+    /**
+     * Eventos discretos: cada evento es un usuario listo para enviar ({@code limit == null}) o una respuesta que llega.
+     * El RTT se entrega al limitador ajustando el inicio respecto a {@link System#nanoTime()}.
+     */
+    private static final class Simulation {
+        private final ConcurrencyLimiter limiter;
+        private final int demand;
+        private final int capacity;
+        private final PriorityQueue<Event> events = new PriorityQueue<>();
+        private int inFlight;
+        private long succeeded;
+        private long rejected;
+        private long measuredRejected;
+        private long rttSum;
+        private long limitSum;
+        private long measured;
+
+        Simulation(ConcurrencyLimiter limiter, int demand, int capacity) {
+            this.limiter = limiter;
+            this.demand = demand;
+            this.capacity = capacity;
+        }
+
+        /**
+         * @param attempts Solicitudes a intentar. Sólo la segunda mitad entra en los promedios.
+         */
+        Simulation run(int attempts) {
+            for (int i = 0; i < demand; i++)
+                events.add(new Event(0, null, 0));
+            for (int attempt = 0; attempt < attempts; ) {
+                Event event = events.poll();
+                if (event.limit != null) {
+                    inFlight--;
+                    limiter.release(event.limit, System.nanoTime() - event.rtt, false);
+                    events.add(new Event(event.time, null, 0));
+                    continue;
+                }
+                attempt++;
+                boolean measure = attempt > attempts / 2;
+                ConcurrencyLimiter.HostLimit limit = limiter.tryAcquire(HOST);
+                if (limit == null) {
+                    rejected++;
+                    if (measure)
+                        measuredRejected++;
+                    events.add(new Event(event.time + BASE_RTT, null, 0));
+                    continue;
+                }
+                inFlight++;
+                succeeded++;
+                long rtt = BASE_RTT * Math.max(capacity, inFlight) / capacity;
+                events.add(new Event(event.time + rtt, limit, rtt));
+                if (measure) {
+                    rttSum += rtt;
+                    limitSum += limiter.getLimit(HOST);
+                    measured++;
+                }
+            }
+            return this;
+        }
+
+        double averageLimit() {
+            return limitSum / (double) measured;
+        }
+
+        double averageRtt() {
+            return rttSum / (double) measured;
+        }
+    }
+
+    private static final class Event implements Comparable<Event> {
+        private final long time;
+        private final ConcurrencyLimiter.HostLimit limit;
+        private final long rtt;
+
+        Event(long time, ConcurrencyLimiter.HostLimit limit, long rtt) {
+            this.time = time;
+            this.limit = limit;
+            this.rtt = rtt;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            return Long.compare(time, other.time);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Interceptor del {@link org.springframework.web.client.RestTemplate} que graba cada intercambio real (la solicitud
+ * tal como sale de {@code build()} y la respuesta con headers y cuerpo) en un archivo compacto que luego puede ser
+ * servido por {@link ReplayTransport} o {@link StubServer}, sin backends reales.
+ * <p>
+ * Uso: {@code ExchangeRecorder.create(path).attach(client)}, y {@code close()} al terminar de grabar.
+ */
+public class ExchangeRecorder implements ClientHttpRequestInterceptor, Closeable {
+    private final DataOutputStream out;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Crea o trunca el archivo de grabación.
+     *
+     * @param file Archivo destino.
+     * @return El grabador.
+     * @throws IOException Si no se puede escribir el archivo.
+     */
+    public static ExchangeRecorder create(Path file) throws IOException {
+        return new ExchangeRecorder(file);
+    }
+
+    private ExchangeRecorder(Path file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+        out.writeInt(Recording.MAGIC);
+    }
+
+    /**
+     * Registra el grabador en el {@link org.springframework.web.client.RestTemplate} del cliente.
+     *
+     * @param client Cliente cuyas solicitudes serán grabadas.
+     * @return La propia instancia.
+     */
+    public ExchangeRecorder attach(RequestBuilder client) {
+        client.getRestTemplate().getInterceptors().add(this);
+        return this;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] requestBody, ClientHttpRequestExecution execution) throws IOException {
+        ClientHttpResponse response = execution.execute(request, requestBody);
+        RecordedResponse recorded;
+        byte[] body;
+        try {
+            body = StreamUtils.copyToByteArray(response.getBody());
+            recorded = new RecordedResponse(response.getRawStatusCode(), response.getHeaders(), ByteBuffer.wrap(body));
+        } finally {
+            response.close();
+        }
+        lock.lock();
+        try {
+            Recording.write(out, request.getMethod(), request.getURI(), requestBody, recorded.getRawStatusCode(),
+                    recorded.getHeaders(), body);
+        } finally {
+            lock.unlock();
+        }
+        return recorded;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            out.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package ve.jj.requestbuilder;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribución de latencias simuladas para {@link ReplayTransport} y {@link StubServer}.
+ */
+public interface LatencyDistribution {
+
+    /**
+     * @param concurrent Solicitudes atendidas en este momento, incluyendo la actual.
+     * @return Latencia a simular en nanosegundos.
+     */
+    long sampleNanos(int concurrent);
+
+    static LatencyDistribution none() {
+        return concurrent -> 0L;
+    }
+
+    static LatencyDistribution fixed(long millis) {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(millis);
+        return concurrent -> nanos;
+    }
+
+    static LatencyDistribution uniform(long minMillis, long maxMillis) {
+        long min = TimeUnit.MILLISECONDS.toNanos(minMillis);
+        long max = TimeUnit.MILLISECONDS.toNanos(maxMillis);
+        return concurrent -> min + (long) (ThreadLocalRandom.current().nextDouble() * (max - min));
+    }
+
+    /**
+     * Log-normal, con cola larga como las latencias reales.
+     *
+     * @param medianMillis Mediana.
+     * @param sigma        Desviación del logaritmo, por ejemplo 0.5.
+     * @return La distribución.
+     */
+    static LatencyDistribution logNormal(double medianMillis, double sigma) {
+        double mu = Math.log(TimeUnit.MILLISECONDS.toNanos(1) * medianMillis);
+        return concurrent -> (long) Math.exp(mu + sigma * ThreadLocalRandom.current().nextGaussian());
+    }
+
+    /**
+     * Latencia que crece con la carga: {@code base} hasta {@code capacity} solicitudes concurrentes, y
+     * {@code perExtraMillis} adicionales por cada solicitud por encima de esa capacidad. Sirve para simular un backend
+     * que se satura.
+     *
+     * @param base           Distribución sin carga.
+     * @param capacity       Solicitudes concurrentes que el backend atiende sin degradarse.
+     * @param perExtraMillis Milisegundos adicionales por solicitud sobre la capacidad.
+     * @return La distribución.
+     */
+    static LatencyDistribution loadDependent(LatencyDistribution base, int capacity, double perExtraMillis) {
+        double perExtra = TimeUnit.MILLISECONDS.toNanos(1) * perExtraMillis;
+        return concurrent -> base.sampleNanos(concurrent) + (long) (Math.max(0, concurrent - capacity) * perExtra);
+    }
+}
@@ -0,0 +1,98 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Headers de las solicitudes preparadas contra un transporte en memoria que registra los headers de cada solicitud
+ * enviada. El cliente tiene el header por defecto {@code X-Tenant: a}.
+ */
+public class PreparedRequestTest {
+
+    private RequestBuilder client;
+    private final List<HttpHeaders> sent = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        HttpHeaders defaults = new HttpHeaders();
+        defaults.add("X-Tenant", "a");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        client = new RequestBuilder("localhost", null, 80, defaults, null);
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) {
+                sent.add(requestHeaders);
+                return new RecordedResponse(200, headers, ByteBuffer.wrap(body));
+            }
+        });
+    }
+
+    @Test
+    public void templateHeadersAppendToDefaultsLikeBuiltRequests() {
+        PreparedRequest prepared = client.prepare(HttpMethod.GET, "/items/{id}").withHeader("X-Tenant", "b").build();
+        prepared.bind(1).perform();
+        client.get().withPath("/items/1").withHeader("X-Tenant", "b").perform();
+
+        assertEquals(Arrays.asList("a", "b"), prepared.getHeaders().get("X-Tenant"));
+        assertEquals(Arrays.asList("a", "b"), sent.get(0).get("X-Tenant"));
+        assertEquals(sent.get(1).get("X-Tenant"), sent.get(0).get("X-Tenant"));
+    }
+
+    @Test
+    public void callHeaderAddsToExistingNameWithoutTouchingTemplate() {
+        PreparedRequest prepared = client.prepare(HttpMethod.GET, "/items/{id}").withHeader("X-Trace", "t").build();
+
+        prepared.bind(1).withHeader("X-Tenant", "c").withHeader("X-Trace", "u").perform();
+        prepared.bind(2).perform();
+
+        assertEquals(Arrays.asList("a", "c"), sent.get(0).get("X-Tenant"));
+        assertEquals(Arrays.asList("t", "u"), sent.get(0).get("X-Trace"));
+        assertEquals(Collections.singletonList("a"), sent.get(1).get("X-Tenant"));
+        assertEquals(Collections.singletonList("t"), sent.get(1).get("X-Trace"));
+    }
+
+    @Test
+    public void definitionChangesAfterBuildDoNotLeak() {
+        PreparedRequest.Definition definition = client.prepare(HttpMethod.GET, "/items/{id}").withHeader("X-Trace", "t");
+        PreparedRequest prepared = definition.build();
+        definition.withHeader("X-Trace", "later");
+
+        prepared.bind(1).perform();
+
+        assertEquals(Collections.singletonList("t"), sent.get(0).get("X-Trace"));
+    }
+}
@@ -0,0 +1,152 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Llaves del limitador de tasa en modo {@code FAIL_FAST} con un permiso por minuto, contra un transporte en memoria:
+ * la segunda solicitud con la misma llave se rechaza.
+ */
+public class RateLimiterTest {
+
+    private RequestBuilder client;
+    private RateLimiter limiter;
+
+    @Before
+    public void setUp() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        client = new RequestBuilder("localhost", null, 80, null, null);
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) {
+                return new RecordedResponse(200, headers, ByteBuffer.wrap(body));
+            }
+        });
+        limiter = RateLimiter.perPathTemplate(1 / 60.0, 1).withMode(RateLimiter.Mode.FAIL_FAST);
+        client.setRateLimiter(limiter);
+    }
+
+    @Test
+    public void idsUnderOneTemplateShareALimit() {
+        client.get().withPath("/items/{id}").withPathVars("1").perform();
+        assertRateLimited(() -> client.get().withPath("/items/{id}").withPathVars("2").perform());
+
+        client.get().withPath("/orders/{id}").withPathVars("1").perform();
+        assertEquals(2, limiter.getAcquiredCount());
+        assertEquals(1, limiter.getRejectedCount());
+    }
+
+    @Test
+    public void preparedAndPublishedRequestsUseTheirTemplate() {
+        PreparedRequest items = client.prepare(HttpMethod.GET, "/items/{id}").build();
+        items.bind("1").perform();
+        assertRateLimited(() -> items.bind("2").perform());
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        ResponsePublisher.responses(client, just("3"), id -> get("/items/" + id))
+                .withPathTemplate("/items/{id}")
+                .subscribe(new Subscriber<ResponseWrapper>() {
+                    @Override
+                    public void onSubscribe(Subscription subscription) {
+                        subscription.request(Long.MAX_VALUE);
+                    }
+
+                    @Override
+                    public void onNext(ResponseWrapper response) {
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        error.set(t);
+                    }
+
+                    @Override
+                    public void onComplete() {
+                    }
+                });
+        assertTrue(String.valueOf(error.get()), error.get() instanceof RequestBuilderException);
+        assertEquals(RequestBuilderException.BuildErrorType.RATE_LIMITED, ((RequestBuilderException) error.get()).getState());
+        assertEquals(1, limiter.getAcquiredCount());
+    }
+
+    @Test
+    public void missingTemplateFallsBackToHost() {
+        client.exchange(get("/items/1"), null);
+        assertRateLimited(() -> client.exchange(get("/items/2"), null));
+        assertRateLimited(() -> client.exchange(get("/orders/1"), null));
+        assertEquals("localhost", limiter.keyFor(URI.create("http://localhost/items/1"), null));
+    }
+
+    /**
+     * Fuente de un único elemento. Sin ejecutor en el cliente la solicitud se realiza dentro de {@code request(n)}.
+     */
+    private static Publisher<String> just(String value) {
+        return subscriber -> subscriber.onSubscribe(new Subscription() {
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                if (done)
+                    return;
+                done = true;
+                subscriber.onNext(value);
+                subscriber.onComplete();
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+    }
+
+    private static RequestEntity<?> get(String path) {
+        return RequestEntity.get(URI.create("http://localhost" + path)).build();
+    }
+
+    private static void assertRateLimited(Runnable call) {
+        try {
+            call.run();
+            fail("se esperaba RATE_LIMITED");
+        } catch (RequestBuilderException e) {
+            assertEquals(RequestBuilderException.BuildErrorType.RATE_LIMITED, e.getState());
+        }
+    }
+}
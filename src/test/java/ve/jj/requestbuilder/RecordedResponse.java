@@ -0,0 +1,68 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Respuesta HTTP ya leída por completo, con el cuerpo en un {@link ByteBuffer} (en memoria o mapeado de un archivo).
+ * Es usada por {@link ExchangeRecorder} para devolver la respuesta luego de grabarla, y por {@link ReplayTransport} y
+ * {@link StubServer} para servir respuestas grabadas.
+ */
+public class RecordedResponse implements ClientHttpResponse {
+    private final int status;
+    private final HttpHeaders headers;
+    private final ByteBuffer body;
+
+    public RecordedResponse(int status, HttpHeaders headers, ByteBuffer body) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+    }
+
+    @Override
+    public HttpStatus getStatusCode() {
+        return HttpStatus.valueOf(status);
+    }
+
+    @Override
+    public int getRawStatusCode() {
+        return status;
+    }
+
+    @Override
+    public String getStatusText() {
+        try {
+            return HttpStatus.valueOf(status).getReasonPhrase();
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    /**
+     * @return Un flujo sobre el cuerpo, cada llamado empieza desde el inicio y no copia los bytes.
+     */
+    @Override
+    public InputStream getBody() {
+        return new ByteBufferInputStream(body.duplicate());
+    }
+
+    /**
+     * @return Vista de sólo lectura del cuerpo.
+     */
+    public ByteBuffer getBodyBuffer() {
+        return body.asReadOnlyBuffer();
+    }
+
+    @Override
+    public void close() {
+    }
+}
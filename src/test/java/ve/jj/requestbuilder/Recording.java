@@ -0,0 +1,192 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Archivo de intercambios grabados por {@link ExchangeRecorder}, mapeado en memoria e indexado por método, ruta y
+ * cuerpo de la solicitud para ser servido por {@link ReplayTransport} o {@link StubServer}. Del cuerpo de la solicitud
+ * sólo se guarda un hash, suficiente para distinguir dos POST a la misma ruta.
+ * <p>
+ * Formato: la cabecera {@code RBX2} seguida de registros con método, uri, hash del cuerpo de la solicitud ({@code long}),
+ * código de estado, headers y cuerpo de la respuesta. Las cadenas y el cuerpo se guardan con su longitud como
+ * {@code int}. Un archivo no puede superar los 2 GB.
+ * <p>
+ * Si una misma solicitud fue grabada varias veces, sus respuestas se sirven en ronda.
+ */
+public class Recording {
+    //    ********* ATTRIBUTES
+
+    static final int MAGIC = 0x52425832; // "RBX2"
+
+    private final ByteBuffer data; // archivo completo, mapeado
+    private final Map<String, Entry> index; // método + ruta y query + hash del cuerpo -> posiciones de los registros
+
+//    ********************* STATIC UTILITIES
+
+    /**
+     * Mapea y reindexa un archivo de grabación.
+     *
+     * @param file El archivo.
+     * @return La grabación.
+     * @throws IOException Si el archivo no existe, no tiene el formato o supera los 2 GB.
+     */
+    public static Recording open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE)
+                throw new IOException("La grabación supera los 2 GB: " + file);
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new Recording(data);
+        }
+    }
+
+    /**
+     * Llave de búsqueda. No incluye esquema ni host para poder servir lo grabado desde otro host (como el
+     * {@link StubServer}).
+     */
+    static String key(String method, URI uri, long bodyHash) {
+        String path = uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+        String key = uri.getRawQuery() == null ? method + " " + path : method + " " + path + "?" + uri.getRawQuery();
+        return bodyHash == 0 ? key : key + " " + Long.toHexString(bodyHash);
+    }
+
+    /**
+     * FNV-1a de 64 bits del cuerpo de la solicitud, 0 si no tiene cuerpo.
+     */
+    static long hash(byte[] body) {
+        if (body == null || body.length == 0)
+            return 0;
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : body) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    static void write(DataOutputStream out, HttpMethod method, URI uri, byte[] requestBody, int status, HttpHeaders headers,
+                      byte[] body) throws IOException {
+        writeString(out, method.name());
+        writeString(out, uri.toString());
+        out.writeLong(hash(requestBody));
+        out.writeInt(status);
+        out.writeInt(headers.size());
+        for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+            writeString(out, header.getKey());
+            out.writeInt(header.getValue().size());
+            for (String value : header.getValue())
+                writeString(out, value);
+        }
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+//    ************************* CONSTRUCTORS
+
+    private Recording(ByteBuffer data) throws IOException {
+        this.data = data;
+        this.index = new HashMap<>();
+        ByteBuffer in = data.duplicate();
+        if (in.remaining() < 4 || in.getInt() != MAGIC)
+            throw new IOException("El archivo no es una grabación de intercambios");
+        while (in.hasRemaining()) {
+            int position = in.position();
+            String method = readString(in);
+            URI uri = URI.create(readString(in));
+            long bodyHash = in.getLong();
+            skipResponse(in);
+            index.computeIfAbsent(key(method, uri, bodyHash), k -> new Entry()).positions.add(position);
+        }
+    }
+
+    private static void skipResponse(ByteBuffer in) {
+        in.getInt(); // estado
+        int headers = in.getInt();
+        for (int i = 0; i < headers; i++) {
+            skip(in);
+            int values = in.getInt();
+            for (int j = 0; j < values; j++)
+                skip(in);
+        }
+        skip(in);
+    }
+
+    private static void skip(ByteBuffer in) {
+        int length = in.getInt();
+        in.position(in.position() + length);
+    }
+
+//    ***************** LOOKUP
+
+    /**
+     * Busca la respuesta grabada. El cuerpo es una vista del archivo mapeado, no se copia.
+     *
+     * @param method      Método HTTP.
+     * @param uri         Uri de la solicitud, sólo se usan ruta y query.
+     * @param requestBody Cuerpo de la solicitud, puede ser {@code null}.
+     * @return La respuesta, o {@code null} si no fue grabada.
+     */
+    public RecordedResponse find(String method, URI uri, byte[] requestBody) {
+        Entry entry = index.get(key(method, uri, hash(requestBody)));
+        if (entry == null)
+            return null;
+        int position = entry.positions.get(Math.floorMod(entry.next.getAndIncrement(), entry.positions.size()));
+        ByteBuffer in = data.duplicate();
+        in.position(position);
+        skip(in); // método
+        skip(in); // uri
+        in.getLong(); // hash del cuerpo
+        int status = in.getInt();
+        HttpHeaders headers = new HttpHeaders();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            int values = in.getInt();
+            for (int j = 0; j < values; j++)
+                headers.add(name, readString(in));
+        }
+        int length = in.getInt();
+        ByteBuffer body = in.slice();
+        body.limit(length);
+        return new RecordedResponse(status, headers, body);
+    }
+
+    /**
+     * @return Cantidad de solicitudes distintas grabadas.
+     */
+    public int size() {
+        return index.size();
+    }
+
+    private static final class Entry {
+        private final List<Integer> positions = new ArrayList<>(1);
+        private final AtomicInteger next = new AtomicInteger();
+    }
+}
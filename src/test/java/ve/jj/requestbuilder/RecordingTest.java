@@ -0,0 +1,90 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Ida y vuelta de una grabación: se graban intercambios reales contra un {@link StubServer} que responde según el
+ * cuerpo recibido, se guarda el archivo, se mapea y se reproduce con {@link ReplayTransport} y con otro
+ * {@link StubServer}.
+ */
+public class RecordingTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordSaveLoadReplay() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("exchanges.rbx");
+        try (StubServer backend = StubServer.start(0, 2, RecordingTest::echo, LatencyDistribution.none());
+             ExchangeRecorder recorder = ExchangeRecorder.create(file)) {
+            RequestBuilder client = new RequestBuilder("127.0.0.1", null, backend.getPort(), null, null);
+            recorder.attach(client);
+            assertExchanges(client);
+        }
+
+        Recording recording = Recording.open(file);
+        assertEquals(3, recording.size());
+
+        RequestBuilder replayed = new RequestBuilder("127.0.0.1", null, 80, null, null);
+        new ReplayTransport(recording).install(replayed);
+        assertExchanges(replayed);
+        assertNotRecorded(replayed);
+
+        try (StubServer stub = StubServer.start(0, 2, StubServer.replaying(recording), LatencyDistribution.none())) {
+            RequestBuilder served = new RequestBuilder("127.0.0.1", null, stub.getPort(), null, null);
+            assertExchanges(served);
+            try {
+                served.post().withPath("/items").withBody(item("c")).perform();
+                fail("se esperaba 404 para la solicitud no grabada");
+            } catch (RequestBuilderException e) {
+                assertEquals(Integer.valueOf(404), e.getStatusCode());
+            }
+        }
+    }
+
+    /**
+     * Dos POST a la misma ruta con distinto cuerpo deben obtener cada uno su propia respuesta.
+     */
+    private static void assertExchanges(RequestBuilder client) {
+        assertEquals("GET /items/1", client.get().withPath("/items/1").perform().getBody(Map.class).get("echo"));
+        assertEquals("POST /items {\"name\":\"a\"}",
+                client.post().withPath("/items").withBody(item("a")).perform().getBody(Map.class).get("echo"));
+        assertEquals("POST /items {\"name\":\"b\"}",
+                client.post().withPath("/items").withBody(item("b")).perform().getBody(Map.class).get("echo"));
+    }
+
+    private static void assertNotRecorded(RequestBuilder client) {
+        try {
+            client.post().withPath("/items").withBody(item("c")).perform();
+            fail("se esperaba que la solicitud no grabada fallara");
+        } catch (RequestBuilderException e) {
+            assertEquals(RequestBuilderException.BuildErrorType.REQUEST_FAILED, e.getState());
+        }
+    }
+
+    private static Map<String, String> item(String name) {
+        return Collections.singletonMap("name", name);
+    }
+
+    private static RecordedResponse echo(String method, URI uri, byte[] body) {
+        String echo = method + " " + uri.getPath() + (body.length == 0 ? "" : " " + new String(body, StandardCharsets.UTF_8));
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        String json = "{\"echo\":\"" + echo.replace("\"", "\\\"") + "\"}";
+        return new RecordedResponse(200, headers, ByteBuffer.wrap(json.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,104 @@
+package ve.jj.requestbuilder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Transporte que sirve desde una {@link Recording} las respuestas grabadas, en el mismo proceso y sin red, simulando
+ * la latencia con una {@link LatencyDistribution}. Permite correr pruebas de rendimiento repetibles sin backends.
+ * <p>
+ * Uso: {@code new ReplayTransport(Recording.open(path), LatencyDistribution.fixed(5)).install(client)}. Las
+ * solicitudes no grabadas fallan con {@code REQUEST_FAILED}.
+ */
+public class ReplayTransport implements ClientHttpRequestFactory {
+    private final Recording recording;
+    private final LatencyDistribution latency;
+    private final AtomicInteger concurrent = new AtomicInteger();
+
+    public ReplayTransport(Recording recording) {
+        this(recording, LatencyDistribution.none());
+    }
+
+    public ReplayTransport(Recording recording, LatencyDistribution latency) {
+        this.recording = recording;
+        this.latency = latency;
+    }
+
+    /**
+     * Reemplaza el transporte del {@link org.springframework.web.client.RestTemplate} del cliente.
+     *
+     * @param client El cliente.
+     * @return La propia instancia.
+     */
+    public ReplayTransport install(RequestBuilder client) {
+        client.getRestTemplate().setRequestFactory(this);
+        return this;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+        return new ReplayRequest(uri, httpMethod);
+    }
+
+    private ClientHttpResponse replay(HttpMethod method, URI uri, byte[] body) throws IOException {
+        int current = concurrent.incrementAndGet();
+        try {
+            RecordedResponse response = recording.find(method.name(), uri, body);
+            if (response == null)
+                throw new IOException("No hay respuesta grabada para: " + method + " " + uri);
+            long wait = latency.sampleNanos(current);
+            long deadline = System.nanoTime() + wait;
+            while (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+                if (Thread.currentThread().isInterrupted())
+                    throw new IOException("Interrumpido simulando latencia");
+                wait = deadline - System.nanoTime();
+            }
+            return response;
+        } finally {
+            concurrent.decrementAndGet();
+        }
+    }
+
+    private final class ReplayRequest extends AbstractClientHttpRequest {
+        private final URI uri;
+        private final HttpMethod method;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        ReplayRequest(URI uri, HttpMethod method) {
+            this.uri = uri;
+            this.method = method;
+        }
+
+        @Override
+        public HttpMethod getMethod() {
+            return method;
+        }
+
+        @Override
+        public URI getURI() {
+            return uri;
+        }
+
+        @Override
+        protected OutputStream getBodyInternal(HttpHeaders headers) {
+            return body;
+        }
+
+        @Override
+        protected ClientHttpResponse executeInternal(HttpHeaders headers) throws IOException {
+            return replay(method, uri, body.toByteArray());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Agrupador contra un endpoint masivo en memoria: {@code GET /items?ids=a,b} responde un arreglo con un elemento por id,
+ * salvo los que empiezan con {@code missing}. Registra los ids de cada llamada masiva y el hilo que la realizó.
+ */
+public class RequestBatcherTest {
+
+    private RequestBuilder client;
+    private final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> threads = Collections.synchronizedList(new ArrayList<>());
+    private volatile boolean failing;
+
+    @Before
+    public void setUp() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        client = new RequestBuilder("localhost", null, 80, null, null);
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) throws IOException {
+                String ids = uri.getQuery().substring("ids=".length());
+                calls.add(ids);
+                threads.add(Thread.currentThread().getName());
+                if (failing)
+                    throw new IOException("conexión rechazada");
+                StringBuilder json = new StringBuilder("[");
+                for (String id : ids.split(",")) {
+                    if (id.startsWith("missing"))
+                        continue;
+                    if (json.length() > 1)
+                        json.append(',');
+                    json.append("{\"id\":\"").append(id).append("\",\"name\":\"item ").append(id).append("\"}");
+                }
+                byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+                return new RecordedResponse(200, headers, ByteBuffer.wrap(body));
+            }
+        });
+    }
+
+    @Test
+    public void repeatedIdsAreRequestedOnce() {
+        RequestBatcher batcher = batcher(100, 20);
+        CompletableFuture<ResponseWrapper> first = batcher.submit("a");
+        CompletableFuture<ResponseWrapper> second = batcher.submit("b");
+        CompletableFuture<ResponseWrapper> again = batcher.submit("a");
+
+        assertEquals("item a", name(first.join()));
+        assertEquals("item b", name(second.join()));
+        assertSame(first.join(), again.join());
+        assertEquals(Collections.singletonList("a,b"), calls);
+        assertEquals(3, batcher.getRequestCount());
+        assertEquals(1, batcher.getBatchCount());
+    }
+
+    @Test
+    public void fullBatchIsSentWithoutWaitingForDelay() {
+        RequestBatcher batcher = batcher(2, TimeUnit.MINUTES.toMillis(1));
+        CompletableFuture<ResponseWrapper> a = batcher.submit("a");
+        assertFalse(a.isDone());
+        CompletableFuture<ResponseWrapper> b = batcher.submit("b");
+
+        // sin ejecutor el lote lleno se envía en el hilo que agregó el último id
+        assertTrue(a.isDone() && b.isDone());
+        assertEquals(Collections.singletonList("a,b"), calls);
+        assertEquals(Thread.currentThread().getName(), threads.get(0));
+
+        batcher.submit("c");
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    public void expiredBatchIsSentOffTheTimerThread() {
+        RequestBatcher batcher = batcher(100, 20);
+        long start = System.nanoTime();
+        ResponseWrapper response = batcher.perform("a");
+
+        assertEquals("item a", name(response));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertEquals(Collections.singletonList("a"), calls);
+        assertNotEquals("request-builder-batcher", threads.get(0));
+    }
+
+    @Test
+    public void eachCallerGetsItsOwnItem() {
+        RequestBatcher batcher = batcher(3, TimeUnit.MINUTES.toMillis(1));
+        List<CompletableFuture<ResponseWrapper>> futures = new ArrayList<>();
+        for (String id : Arrays.asList("c", "a", "b"))
+            futures.add(batcher.submit(id));
+
+        assertEquals("item c", name(futures.get(0).join()));
+        assertEquals("item a", name(futures.get(1).join()));
+        assertEquals("item b", name(futures.get(2).join()));
+        assertFalse(futures.get(0).join().getResponse().getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+    }
+
+    @Test
+    public void missingIdFailsOnlyItsCallers() {
+        RequestBatcher batcher = batcher(3, TimeUnit.MINUTES.toMillis(1));
+        CompletableFuture<ResponseWrapper> a = batcher.submit("a");
+        CompletableFuture<ResponseWrapper> missing = batcher.submit("missing-1");
+        CompletableFuture<ResponseWrapper> b = batcher.submit("b");
+
+        assertEquals("item a", name(a.join()));
+        assertEquals("item b", name(b.join()));
+        assertEquals(RequestBuilderException.BuildErrorType.BATCH_ITEM_MISSING, failure(missing).getState());
+    }
+
+    @Test
+    public void failedBulkCallFailsEveryCaller() {
+        failing = true;
+        RequestBatcher batcher = batcher(2, TimeUnit.MINUTES.toMillis(1));
+        CompletableFuture<ResponseWrapper> a = batcher.submit("a");
+        CompletableFuture<ResponseWrapper> b = batcher.submit("b");
+
+        assertEquals(RequestBuilderException.BuildErrorType.REQUEST_FAILED, failure(a).getState());
+        assertEquals(RequestBuilderException.BuildErrorType.REQUEST_FAILED, failure(b).getState());
+    }
+
+    private RequestBatcher batcher(int maxBatchSize, long maxDelayMillis) {
+        return RequestBatcher.create(client.prepare(HttpMethod.GET, "/items").withParamNames("ids").build(),
+                RequestBatcher.arrayByField("id"))
+                .withMaxBatchSize(maxBatchSize)
+                .withMaxDelay(maxDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private static String name(ResponseWrapper response) {
+        return (String) response.getBody(Map.class).get("name");
+    }
+
+    private static RequestBuilderException failure(CompletableFuture<ResponseWrapper> future) {
+        try {
+            future.join();
+            fail("se esperaba que el futuro fallara");
+            return null;
+        } catch (CompletionException e) {
+            assertTrue(String.valueOf(e.getCause()), e.getCause() instanceof RequestBuilderException);
+            return (RequestBuilderException) e.getCause();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Un mismo cliente compartido por varias solicitudes en construcción, contra un transporte en memoria que registra
+ * la uri y los headers de cada solicitud enviada.
+ */
+public class RequestBuilderTest {
+
+    private RequestBuilder client;
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+    @Before
+    public void setUp() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        client = new RequestBuilder("localhost", "/api", 80, null, null);
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) {
+                sent.add(method + " " + uri.getPath() + " " + requestHeaders.get("X-Id"));
+                return new RecordedResponse(200, headers, ByteBuffer.wrap(body));
+            }
+        });
+    }
+
+    @Test
+    public void eachBuilderPerformsItsOwnRequest() {
+        BodylessRequestBuilder first = client.get().withPath("/items/1").withHeader("X-Id", "1");
+        BodylessRequestBuilder second = client.delete().withPath("/items/2").withHeader("X-Id", "2");
+
+        first.perform();
+        second.perform();
+        first.performAsync().join();
+
+        assertEquals(Arrays.asList("GET /api/items/1 [1]", "DELETE /api/items/2 [2]", "GET /api/items/1 [1]"), sent);
+    }
+
+    @Test
+    public void concurrentThreadsShareOneClient() throws InterruptedException {
+        int threads = 8;
+        int calls = 200;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String id = String.valueOf(t);
+            workers.add(new Thread(() -> {
+                for (int i = 0; i < calls; i++)
+                    client.get().withPath("/items/" + id).withHeader("X-Id", id).perform();
+            }));
+        }
+        for (Thread worker : workers)
+            worker.start();
+        for (Thread worker : workers)
+            worker.join();
+
+        assertEquals(threads * calls, sent.size());
+        for (String request : sent) {
+            String[] parts = request.split(" ");
+            assertEquals(request, "/api/items/" + parts[2].substring(1, parts[2].length() - 1), parts[1]);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package ve.jj.requestbuilder;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Cadena de interceptores contra un transporte en memoria que registra los headers de cada solicitud enviada.
+ */
+public class RequestInterceptorTest {
+
+    private static final RequestEntity<?> REQUEST = new RequestEntity<>(HttpMethod.GET, URI.create("http://localhost/items"));
+
+    private RequestBuilder client;
+    private final List<HttpHeaders> sent = new ArrayList<>();
+    private boolean recording = true;
+
+    @Before
+    public void setUp() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        client = new RequestBuilder();
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) {
+                if (recording)
+                    sent.add(requestHeaders);
+                return new RecordedResponse(200, headers, ByteBuffer.wrap(body));
+            }
+        });
+    }
+
+    @Test
+    public void interceptorsRunInRegistrationOrder() {
+        List<String> calls = new ArrayList<>();
+        client.setInterceptors(tracing("a", calls), tracing("b", calls));
+        client.addInterceptor(tracing("c", calls));
+
+        client.exchange(REQUEST, "/items");
+
+        assertEquals(Arrays.asList("a>", "b>", "c>", "<c", "<b", "<a"), calls);
+        assertEquals(Arrays.asList("a", "b", "c"), sent.get(0).get("X-Trace"));
+    }
+
+    @Test
+    public void interceptorCanShortCircuit() {
+        List<String> calls = new ArrayList<>();
+        client.setInterceptors(tracing("a", calls),
+                (request, chain) -> chain.respond(new ResponseEntity<>("{\"id\":2}", HttpStatus.OK)),
+                tracing("c", calls));
+
+        ResponseWrapper response = client.exchange(REQUEST, "/items");
+
+        assertEquals("{\"id\":2}", response.getResponse().getBody());
+        assertEquals(Arrays.asList("a>", "<a"), calls);
+        assertTrue(sent.isEmpty());
+    }
+
+    /**
+     * Un interceptor que reintenta llama a {@code proceed} dos veces: ambos envíos pasan por los interceptores que le
+     * siguen.
+     */
+    @Test
+    public void retryingInterceptorRunsRestOfChainEachTime() {
+        List<String> calls = new ArrayList<>();
+        RequestInterceptor retry = (request, chain) -> {
+            chain.proceed(request);
+            return chain.proceed(request);
+        };
+        RequestInterceptor auth = (request, chain) -> {
+            calls.add("auth");
+            HttpHeaders headers = new HttpHeaders();
+            request.getHeaders().forEach((header, values) -> headers.put(header, new ArrayList<>(values)));
+            headers.set(HttpHeaders.AUTHORIZATION, "tok");
+            return chain.proceed(new RequestEntity<>(headers, request.getMethod(), request.getUrl()));
+        };
+        client.setInterceptors(retry, auth);
+
+        client.exchange(REQUEST, "/items");
+        client.exchange(REQUEST, "/items");
+
+        assertEquals(Arrays.asList("auth", "auth", "auth", "auth"), calls);
+        assertEquals(4, sent.size());
+        for (HttpHeaders headers : sent)
+            assertEquals(Collections.singletonList("tok"), headers.get(HttpHeaders.AUTHORIZATION));
+    }
+
+    /**
+     * Los eslabones de la cadena se arman al configurar los interceptores, un llamado no crea ninguno.
+     */
+    @Test
+    public void chainAllocatesNothingPerCall() {
+        Assume.assumeTrue(allocationCounting());
+        recording = false;
+        RequestInterceptor noop = (request, chain) -> chain.proceed(request);
+
+        // dos pasadas, el mínimo de cada caso quita el efecto del orden en la compilación del JIT
+        long direct = Long.MAX_VALUE;
+        long empty = Long.MAX_VALUE;
+        long three = Long.MAX_VALUE;
+        for (int pass = 0; pass < 2; pass++) {
+            direct = Math.min(direct, bytesPerCall(() -> client.executeLimited(REQUEST, false)));
+            client.setInterceptors();
+            empty = Math.min(empty, bytesPerCall(() -> client.exchange(REQUEST, "/items")));
+            client.setInterceptors(noop, noop, noop);
+            three = Math.min(three, bytesPerCall(() -> client.exchange(REQUEST, "/items")));
+        }
+
+        assertTrue("directo " + direct + " B, sin interceptores " + empty + " B", empty <= direct + 8);
+        assertTrue("directo " + direct + " B, tres interceptores " + three + " B", three <= direct + 8);
+    }
+
+    private static RequestInterceptor tracing(String name, List<String> calls) {
+        return (request, chain) -> {
+            calls.add(name + ">");
+            HttpHeaders headers = new HttpHeaders();
+            request.getHeaders().forEach((header, values) -> headers.put(header, new ArrayList<>(values)));
+            headers.add("X-Trace", name);
+            ResponseWrapper response = chain.proceed(new RequestEntity<>(headers, request.getMethod(), request.getUrl()));
+            calls.add("<" + name);
+            return response;
+        };
+    }
+
+    private static boolean allocationCounting() {
+        return ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * Mínimo de bytes asignados por llamado en varias rondas, tras calentar el JIT.
+     */
+    private long bytesPerCall(Runnable call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        for (int i = 0; i < 20_000; i++)
+            call.run();
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < 5; round++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < 10_000; i++)
+                call.run();
+            best = Math.min(best, (threads.getThreadAllocatedBytes(thread) - before) / 10_000);
+        }
+        return best;
+    }
+}
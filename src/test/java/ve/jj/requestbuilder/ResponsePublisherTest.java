@@ -0,0 +1,285 @@
+package ve.jj.requestbuilder;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.RequestEntity;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Contrato Reactive Streams del adaptador contra un transporte en memoria que responde {@code {"id":N}} a
+ * {@code /items/N}, con una demora por id configurable.
+ */
+public class ResponsePublisherTest {
+
+    private ExecutorService executor;
+    private RequestBuilder client;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile IntUnaryOperator delayMillis = id -> 0;
+    private volatile int failingId = -1;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        client = new RequestBuilder().setExecutor(executor);
+        client.getRestTemplate().setRequestFactory((uri, method) -> new AbstractClientHttpRequest() {
+            @Override
+            public HttpMethod getMethod() {
+                return method;
+            }
+
+            @Override
+            public URI getURI() {
+                return uri;
+            }
+
+            @Override
+            protected OutputStream getBodyInternal(HttpHeaders requestHeaders) {
+                return new ByteArrayOutputStream();
+            }
+
+            @Override
+            protected ClientHttpResponse executeInternal(HttpHeaders requestHeaders) throws IOException {
+                String path = uri.getPath();
+                int id = Integer.parseInt(path.substring(path.lastIndexOf('/') + 1));
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(delayMillis.applyAsInt(id));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                if (id == failingId)
+                    throw new IOException("conexión reiniciada");
+                byte[] body = ("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8);
+                return new RecordedResponse(200, headers, ByteBuffer.wrap(body));
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void neverRunsOrDeliversMoreThanRequested() throws InterruptedException {
+        delayMillis = id -> 5;
+        Range source = new Range(10);
+        Collector subscriber = new Collector();
+        publisher(source, 16, false).subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        await(() -> subscriber.items.size() == 2);
+        Thread.sleep(50);
+        assertEquals(2, subscriber.items.size());
+        assertEquals(2, source.emitted.get());
+        assertTrue("en curso " + maxInFlight.get(), maxInFlight.get() <= 2);
+
+        subscriber.subscription.request(3);
+        await(() -> subscriber.items.size() == 5);
+        Thread.sleep(50);
+        assertEquals(5, subscriber.items.size());
+        assertEquals(5, source.emitted.get());
+        assertFalse(subscriber.completed);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        await(() -> subscriber.completed);
+        assertEquals(10, subscriber.items.size());
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void orderedModeDeliversInSourceOrder() {
+        delayMillis = id -> (20 - id) % 4 * 5; // dentro de cada grupo de 4 los últimos completan primero
+        Collector subscriber = new Collector();
+        publisher(new Range(20), 4, true).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        await(() -> subscriber.completed);
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++)
+            expected.add(i);
+        assertEquals(expected, subscriber.items);
+        assertTrue("en curso " + maxInFlight.get(), maxInFlight.get() > 1 && maxInFlight.get() <= 4);
+    }
+
+    @Test
+    public void cancelStopsSourceAndDeliveries() throws InterruptedException {
+        Range source = new Range(100);
+        Collector subscriber = new Collector();
+        publisher(source, 4, false).subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        await(() -> subscriber.items.size() == 2);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(5);
+        Thread.sleep(50);
+
+        assertTrue(source.cancelled);
+        assertEquals(2, subscriber.items.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void failedExchangeSignalsOnError() {
+        failingId = 3;
+        Range source = new Range(10);
+        Collector subscriber = new Collector();
+        publisher(source, 1, true).subscribe(subscriber);
+
+        subscriber.subscription.request(Long.MAX_VALUE);
+        await(() -> subscriber.error != null);
+
+        assertTrue(String.valueOf(subscriber.error), subscriber.error instanceof RequestBuilderException);
+        assertEquals(Arrays.asList(0, 1, 2), subscriber.items);
+        assertTrue(source.cancelled);
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void nonPositiveRequestSignalsOnError() {
+        Range source = new Range(10);
+        Collector subscriber = new Collector();
+        publisher(source, 4, false).subscribe(subscriber);
+
+        subscriber.subscription.request(0);
+        await(() -> subscriber.error != null);
+
+        assertTrue(String.valueOf(subscriber.error), subscriber.error instanceof IllegalArgumentException);
+        assertTrue(source.cancelled);
+        assertEquals(0, source.emitted.get());
+    }
+
+    private ResponsePublisher<Integer, Integer> publisher(Range source, int concurrency, boolean ordered) {
+        return new ResponsePublisher<Integer, Integer>(client, source,
+                id -> RequestEntity.get(URI.create("http://localhost/items/" + id)).build(),
+                response -> ((Number) response.getBody(Map.class).get("id")).intValue())
+                .withConcurrency(concurrency)
+                .withOrdering(ordered);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline)
+                throw new AssertionError("tiempo de espera agotado");
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Fuente síncrona de los enteros {@code 0..count-1} que respeta la demanda y registra cuántos emitió.
+     */
+    private static final class Range implements Publisher<Integer> {
+        private final int count;
+        private final AtomicInteger emitted = new AtomicInteger();
+        private volatile boolean cancelled;
+
+        Range(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(Subscriber<? super Integer> subscriber) {
+            subscriber.onSubscribe(new Subscription() {
+                private long requested;
+                private boolean emitting;
+                private boolean completed;
+
+                @Override
+                public void request(long n) {
+                    synchronized (this) {
+                        requested += n;
+                        if (emitting)
+                            return;
+                        emitting = true;
+                    }
+                    for (; ; ) {
+                        synchronized (this) {
+                            if (cancelled || requested == 0 || emitted.get() == count) {
+                                emitting = false;
+                                break;
+                            }
+                            requested--;
+                        }
+                        subscriber.onNext(emitted.getAndIncrement());
+                    }
+                    synchronized (this) {
+                        if (cancelled || completed || emitted.get() != count)
+                            return;
+                        completed = true;
+                    }
+                    subscriber.onComplete();
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+            });
+        }
+    }
+
+    private static final class Collector implements Subscriber<Integer> {
+        private final List<Integer> items = Collections.synchronizedList(new ArrayList<>());
+        private volatile Subscription subscription;
+        private volatile Throwable error;
+        private volatile boolean completed;
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Integer item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            error = t;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ve.jj.requestbuilder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StreamUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor HTTP local (basado en el servidor incluido en el JDK) que responde con respuestas grabadas o fijas, con
+ * latencia simulada. Sirve para pruebas de carga y de regresión del cliente a través de la red real.
+ * <p>
+ * La latencia se simula programando la escritura de la respuesta, sin ocupar un hilo por solicitud en espera, de modo
+ * que el servidor soporta alta concurrencia con pocos hilos.
+ * <p>
+ * Activa {@code sun.net.httpserver.nodelay} (si no fue definida) antes de crear el primer servidor: sin TCP_NODELAY
+ * el servidor del JDK escribe encabezados y cuerpo por separado y el segundo espera el ACK retardado del cliente,
+ * unos 40 ms por respuesta. La propiedad se lee una sola vez por JVM, al crear el primer {@code HttpServer}.
+ */
+public class StubServer implements Closeable {
+    static {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ScheduledExecutorService scheduler;
+    private final Responder responder;
+    private final LatencyDistribution latency;
+    private final AtomicInteger concurrent = new AtomicInteger();
+
+    /**
+     * Genera la respuesta a una solicitud.
+     */
+    public interface Responder {
+        /**
+         * @param method Método HTTP.
+         * @param uri    Ruta y query de la solicitud.
+         * @param body   Cuerpo de la solicitud, vacío si no tiene.
+         * @return La respuesta, o {@code null} para responder 404.
+         */
+        RecordedResponse respond(String method, URI uri, byte[] body);
+    }
+
+    /**
+     * @param recording Grabación a servir.
+     * @return Generador que busca cada solicitud en la grabación.
+     */
+    public static Responder replaying(Recording recording) {
+        return recording::find;
+    }
+
+    /**
+     * @param status      Código de estado.
+     * @param contentType Tipo de contenido.
+     * @param body        Cuerpo.
+     * @return Generador que responde siempre lo mismo.
+     */
+    public static Responder fixed(int status, String contentType, byte[] body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, contentType);
+        ByteBuffer buffer = ByteBuffer.wrap(body).asReadOnlyBuffer();
+        return (method, uri, requestBody) -> new RecordedResponse(status, headers, buffer);
+    }
+
+    /**
+     * Inicia el servidor.
+     *
+     * @param port      Puerto, 0 para uno libre (ver {@code getPort()}).
+     * @param threads   Hilos para atender solicitudes y escribir respuestas.
+     * @param responder Generador de respuestas.
+     * @param latency   Latencia simulada.
+     * @return El servidor iniciado.
+     * @throws IOException Si no se puede abrir el puerto.
+     */
+    public static StubServer start(int port, int threads, Responder responder, LatencyDistribution latency) throws IOException {
+        return new StubServer(port, threads, responder, latency);
+    }
+
+    private StubServer(int port, int threads, Responder responder, LatencyDistribution latency) throws IOException {
+        this.responder = responder;
+        this.latency = latency;
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "stub-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 1024);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(scheduler);
+        this.server.start();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int current = concurrent.incrementAndGet();
+        boolean scheduled = false;
+        try {
+            byte[] body = StreamUtils.copyToByteArray(exchange.getRequestBody());
+            RecordedResponse response = responder.respond(exchange.getRequestMethod(), exchange.getRequestURI(), body);
+            long wait = latency.sampleNanos(current);
+            if (wait > 0) {
+                scheduler.schedule(() -> complete(exchange, response), wait, TimeUnit.NANOSECONDS);
+                scheduled = true;
+            } else
+                send(exchange, response);
+        } finally {
+            // si falló antes de programarse (lectura, generador o pool cerrado) también se libera el lugar
+            if (!scheduled)
+                release(exchange);
+        }
+    }
+
+    private void complete(HttpExchange exchange, RecordedResponse response) {
+        try {
+            send(exchange, response);
+        } finally {
+            release(exchange);
+        }
+    }
+
+    private void release(HttpExchange exchange) {
+        exchange.close();
+        concurrent.decrementAndGet();
+    }
+
+    private void send(HttpExchange exchange, RecordedResponse response) {
+        try {
+            if (response == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            for (Map.Entry<String, List<String>> header : response.getHeaders().entrySet()) {
+                // la longitud y la codificación de transferencia las decide el servidor
+                if (!header.getKey().equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+                        && !header.getKey().equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING))
+                    exchange.getResponseHeaders().put(header.getKey(), header.getValue());
+            }
+            ByteBuffer body = response.getBodyBuffer();
+            boolean bodyless = "HEAD".equals(exchange.getRequestMethod()) || !body.hasRemaining();
+            exchange.sendResponseHeaders(response.getRawStatusCode(), bodyless ? -1 : body.remaining());
+            if (!bodyless) {
+                byte[] chunk = new byte[Math.min(body.remaining(), StreamUtils.BUFFER_SIZE)];
+                OutputStream out = exchange.getResponseBody();
+                while (body.hasRemaining()) {
+                    int n = Math.min(chunk.length, body.remaining());
+                    body.get(chunk, 0, n);
+                    out.write(chunk, 0, n);
+                }
+            }
+        } catch (IOException ignored) {
+            // el cliente cerró la conexión
+        }
+    }
+
+    /**
+     * @return Puerto en el que escucha el servidor.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return Solicitudes en curso.
+     */
+    public int getConcurrent() {
+        return concurrent.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.shutdownNow();
+    }
+}